@@ -0,0 +1,186 @@
+package com.microfocus.octane.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpCookie;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Auth tokens cache shared by all the endpoint clients of a service
+ * - tokens are keyed by Octane host, client and a hash of the secret
+ * - concurrent logins for the same key are collapsed into a single login request in flight
+ * - cached token is reused until invalidated (eg upon 401 during the upgrade)
+ * - tokens with known expiration are refreshed in the background ahead of the expiry, as long as there are clients using them
+ * - tokens not used by any client anymore are evicted, so that the cache does not outgrow the running clients
+ */
+final class AuthTokenCache {
+	private static final Logger logger = LoggerFactory.getLogger(AuthTokenCache.class);
+	private static final double REFRESH_AT_LIFETIME_RATIO = 0.8;
+	private static final long REFRESH_RETRY_DELAY = 30000;
+	private final ConcurrentMap<String, CompletableFuture<HttpCookie>> tokens = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Integer> usages = new ConcurrentHashMap<>();
+	private final Function<OctaneWSClientContext, CompletableFuture<HttpCookie>> loginFunction;
+	private final ScheduledExecutorService refreshScheduler;
+
+	AuthTokenCache(Function<OctaneWSClientContext, CompletableFuture<HttpCookie>> loginFunction, ScheduledExecutorService refreshScheduler) {
+		this.loginFunction = loginFunction;
+		this.refreshScheduler = refreshScheduler;
+	}
+
+	/**
+	 * @param context client context
+	 * @return promise of the cached token, or of the login in flight, or of a new login
+	 */
+	CompletableFuture<HttpCookie> acquire(OctaneWSClientContext context) {
+		String key = keyOf(context);
+		CompletableFuture<HttpCookie> result = tokens.get(key);
+		if (result == null) {
+			CompletableFuture<HttpCookie> candidate = new CompletableFuture<>();
+			result = tokens.putIfAbsent(key, candidate);
+			if (result == null) {
+				result = candidate;
+				login(key, context, candidate);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * invalidates the cached token, only if it is still the rejected one (so that the token renewed meanwhile is preserved)
+	 *
+	 * @param context       client context
+	 * @param rejectedToken token that has been rejected by the server
+	 */
+	void invalidate(OctaneWSClientContext context, HttpCookie rejectedToken) {
+		String key = keyOf(context);
+		CompletableFuture<HttpCookie> cached = tokens.get(key);
+		if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+			HttpCookie cachedToken = cached.getNow(null);
+			if (cachedToken != null && cachedToken.getValue().equals(rejectedToken.getValue()) && tokens.remove(key, cached)) {
+				logger.info("invalidated auth token of " + context);
+			}
+		}
+	}
+
+	/**
+	 * marks the context's token as used by a running client, so that it'll be refreshed ahead of expiry
+	 *
+	 * @param context client context
+	 */
+	void retain(OctaneWSClientContext context) {
+		usages.merge(keyOf(context), 1, Integer::sum);
+	}
+
+	/**
+	 * marks the context's token as no longer used by a running client; once not used by any, it won't be refreshed anymore
+	 * - token without known expiration (thus never refreshed) is evicted right away once not used by any client, the expiring ones are evicted upon their refresh
+	 *
+	 * @param context client context
+	 */
+	void release(OctaneWSClientContext context) {
+		String key = keyOf(context);
+		if (usages.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null) == null) {
+			CompletableFuture<HttpCookie> cached = tokens.get(key);
+			if (cached != null && cached.isDone() && !cached.isCompletedExceptionally() && cached.getNow(null).getMaxAge() <= 0 && tokens.remove(key, cached)) {
+				logger.info("auth token of " + context + " is not used by any client anymore, evicted");
+			}
+		}
+	}
+
+	private void login(String key, OctaneWSClientContext context, CompletableFuture<HttpCookie> promise) {
+		callLogin(context).whenComplete((token, throwable) -> {
+			if (throwable != null) {
+				tokens.remove(key, promise);
+				promise.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			} else {
+				promise.complete(token);
+				scheduleRefresh(key, context, promise, token);
+			}
+		});
+	}
+
+	private CompletableFuture<HttpCookie> callLogin(OctaneWSClientContext context) {
+		try {
+			return loginFunction.apply(context);
+		} catch (RuntimeException re) {
+			CompletableFuture<HttpCookie> result = new CompletableFuture<>();
+			result.completeExceptionally(re);
+			return result;
+		}
+	}
+
+	private void scheduleRefresh(String key, OctaneWSClientContext context, CompletableFuture<HttpCookie> promise, HttpCookie token) {
+		if (token.getMaxAge() <= 0) {
+			return;
+		}
+		long lifetime = token.getMaxAge() * 1000;
+		long expiresAt = System.currentTimeMillis() + lifetime;
+		scheduleRefresh(key, context, promise, expiresAt, (long) (lifetime * REFRESH_AT_LIFETIME_RATIO));
+	}
+
+	private void scheduleRefresh(String key, OctaneWSClientContext context, CompletableFuture<HttpCookie> promise, long expiresAt, long delay) {
+		try {
+			refreshScheduler.schedule(() -> refresh(key, context, promise, expiresAt), delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException ree) {
+			logger.debug("refresh scheduler is down, auth token of " + context + " won't be refreshed proactively");
+		}
+	}
+
+	private void refresh(String key, OctaneWSClientContext context, CompletableFuture<HttpCookie> promise, long expiresAt) {
+		if (tokens.get(key) != promise) {
+			//  token has been invalidated or replaced meanwhile
+			return;
+		}
+		if (!usages.containsKey(key)) {
+			tokens.remove(key, promise);
+			logger.info("auth token of " + context + " is not used by any client anymore, evicted instead of refreshing");
+			return;
+		}
+
+		logger.info("refreshing auth token of " + context + " ahead of its expiry");
+		callLogin(context).whenComplete((token, throwable) -> {
+			if (throwable == null) {
+				CompletableFuture<HttpCookie> refreshed = CompletableFuture.completedFuture(token);
+				if (tokens.replace(key, promise, refreshed)) {
+					scheduleRefresh(key, context, refreshed, token);
+				}
+			} else if (System.currentTimeMillis() + REFRESH_RETRY_DELAY < expiresAt) {
+				logger.warn("failed to refresh auth token of " + context + ", will retry while the current one is still valid", throwable);
+				scheduleRefresh(key, context, promise, expiresAt, REFRESH_RETRY_DELAY);
+			} else {
+				logger.warn("failed to refresh auth token of " + context + ", it'll be renewed upon next connect", throwable);
+				tokens.remove(key, promise);
+			}
+		});
+	}
+
+	private static String keyOf(OctaneWSClientContext context) {
+		return context.endpointUrl.getScheme() + "://" + context.endpointUrl.getHost() + ":" + context.endpointUrl.getPort() +
+				"|" + context.client +
+				"|" + hash(context.secret);
+	}
+
+	static String hash(String secret) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+			StringBuilder result = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.toString();
+		} catch (NoSuchAlgorithmException nsae) {
+			throw new IllegalStateException("SHA-256 MUST be supported by any Java platform", nsae);
+		}
+	}
+}
@@ -1,71 +1,158 @@
 package com.microfocus.octane.websocket;
 
 import com.microfocus.octane.websocket.exceptions.OctaneWSAuthException;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpProxy;
+import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.client.util.BasicAuthentication;
+import org.eclipse.jetty.client.util.BytesRequestContent;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.util.HttpCookieStore;
+import org.eclipse.jetty.websocket.client.WebSocketClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.*;
+import java.net.HttpCookie;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.jetty.http.MimeTypes.Type.APPLICATION_JSON;
 
 /**
  * Auth util is a stateless helper to perform authentication to Octane based on the provided configuration
+ * - login is performed asynchronously over Jetty's HttpClient, which is expected to be dedicated to logins (see createLoginHttpClient)
  */
 class AuthUtil {
 	private static final Logger logger = LoggerFactory.getLogger(AuthUtil.class);
 	private static final String AUTH_RESOURCE = "/authentication/sign_in";
-	private static final String COOKIES_HEADER_NAME = "SET-COOKIE";
 	private static final String AUTH_COOKIE_NAME = "LWSSO_COOKIE_KEY";
+	private static final String MAX_AGE_ATTRIBUTE = "Max-Age";
+	private static final String EXPIRES_ATTRIBUTE = "Expires";
+	private static final long LOGIN_TIMEOUT = 30;
+	private static final DateTimeFormatter[] EXPIRES_FORMATS = new DateTimeFormatter[]{
+			DateTimeFormatter.RFC_1123_DATE_TIME,
+			DateTimeFormatter.ofPattern("EEE, dd-MMM-yyyy HH:mm:ss zzz", Locale.US)
+	};
 
 	private AuthUtil() {
 	}
 
-	static HttpCookie login(OctaneWSClientContext context) {
+	static CompletableFuture<HttpCookie> login(HttpClient loginHttpClient, OctaneWSClientContext context) {
+		if (loginHttpClient == null) {
+			throw new IllegalArgumentException("login HTTP client MUST NOT be NULL");
+		}
 		if (context == null) {
 			throw new IllegalArgumentException("context MUST NOT be NULL");
 		}
 
-		URL loginUrl = buildLoginUrl(context.endpointUrl);
-		byte[] loginPayloadBytes = buildLoginPayload(context.client, context.secret);
-		Proxy proxy = setupProxy(context.proxyUrl, context.proxyUsername, context.proxyPassword);
-
-		HttpURLConnection connection;
+		CompletableFuture<HttpCookie> result = new CompletableFuture<>();
+		long loginStarted = System.nanoTime();
+		result.whenComplete((authToken, error) -> context.metrics.onLogin(System.nanoTime() - loginStarted, error == null));
 		try {
-			connection = (HttpURLConnection) loginUrl.openConnection(proxy);
-			connection.setDoOutput(true);
-			connection.setInstanceFollowRedirects(false);
-			connection.setRequestMethod(HttpMethod.POST.asString());
-			connection.setRequestProperty(HttpHeader.CONTENT_TYPE.asString(), APPLICATION_JSON.asString());
-			connection.setRequestProperty(HttpHeader.CONTENT_LENGTH.asString(), String.valueOf(loginPayloadBytes.length));
-			connection.getOutputStream().write(loginPayloadBytes);
-			connection.connect();
-
-			if (connection.getResponseCode() != HttpStatus.OK_200) {
-				throw new OctaneWSAuthException("failed to perform login request " + context + " (response status " + connection.getResponseCode() + " while expected for " + HttpStatus.OK_200 + ")");
-			}
+			URI loginUrl = buildLoginUrl(context.endpointUrl);
+			byte[] loginPayloadBytes = buildLoginPayload(context.client, context.secret);
+
+			loginHttpClient.newRequest(loginUrl)
+					.method(HttpMethod.POST)
+					.followRedirects(false)
+					.timeout(LOGIN_TIMEOUT, TimeUnit.SECONDS)
+					.body(new BytesRequestContent(APPLICATION_JSON.asString(), loginPayloadBytes))
+					.send(loginResult -> {
+						if (loginResult.isFailed()) {
+							result.completeExceptionally(new OctaneWSAuthException("failed to perform login request to " + context, loginResult.getFailure()));
+						} else if (loginResult.getResponse().getStatus() != HttpStatus.OK_200) {
+							result.completeExceptionally(new OctaneWSAuthException("failed to perform login request " + context + " (response status " + loginResult.getResponse().getStatus() + " while expected for " + HttpStatus.OK_200 + ")"));
+						} else {
+							HttpCookie authToken = retrieveAuthToken(loginResult.getResponse().getHeaders().getValuesList(HttpHeader.SET_COOKIE));
+							if (authToken == null) {
+								result.completeExceptionally(new OctaneWSAuthException("failed to extract auth token from login response"));
+							} else {
+								result.complete(authToken);
+							}
+						}
+					});
 		} catch (Exception e) {
-			throw new OctaneWSAuthException("failed to perform login request to " + context, e);
+			result.completeExceptionally(e instanceof OctaneWSAuthException ? e : new OctaneWSAuthException("failed to perform login request to " + context, e));
 		}
+		return result;
+	}
+
+	/**
+	 * @param context client context
+	 * @return key of the login HTTP client relevant for the context; contexts with the same proxy configuration share the login HTTP client
+	 * (the proxy password is held by the key as a hash only, same as the secret by the auth tokens cache)
+	 */
+	static String loginHttpClientKey(OctaneWSClientContext context) {
+		return (context.proxyUrl == null ? "" : context.proxyUrl) +
+				"|" + (context.proxyUsername == null ? "" : context.proxyUsername) +
+				"|" + (context.proxyPassword == null ? "" : AuthTokenCache.hash(context.proxyPassword)) +
+				"|" + (context.tls == null ? "" : context.tls.id);
+	}
 
-		String authTokenValue = retrieveAuthToken(connection);
-		if (authTokenValue == null) {
-			throw new OctaneWSAuthException("failed to extract auth token from login response");
+	/**
+	 * creates (not started) HTTP client dedicated to logins with the context's proxy and TLS configuration
+	 * - shares the executor, scheduler and buffers pool with the WebSocket transport, so no extra threads are spawned
+	 * - does not store cookies, so that tokens of different credentials never leak one into another
+	 * - proxy authentication is scoped to this HTTP client only (no JVM-global Authenticator)
+	 */
+	static HttpClient createLoginHttpClient(OctaneWSClientContext context, WebSocketClient transport) {
+		HttpClient result;
+		if (context.tls != null) {
+			ClientConnector clientConnector = new ClientConnector();
+			clientConnector.setSelectors(1);
+			clientConnector.setSslContextFactory(context.tls.newSslContextFactory());
+			result = new HttpClient(new HttpClientTransportOverHTTP(clientConnector));
+		} else {
+			result = new HttpClient();
 		}
+		result.setName("octane-ws-login");
+		result.setExecutor(transport.getExecutor());
+		result.setScheduler(transport.getHttpClient().getScheduler());
+		result.setByteBufferPool(transport.getBufferPool());
+		result.setCookieStore(new HttpCookieStore.Empty());
+		result.setFollowRedirects(false);
+
+		if (context.proxyUrl != null && !context.proxyUrl.isEmpty()) {
+			try {
+				URL url = new URL(context.proxyUrl);
+				HttpProxy proxy = new HttpProxy(url.getHost(), url.getPort() < 0 ? url.getDefaultPort() : url.getPort());
+				result.getProxyConfiguration().addProxy(proxy);
+
+				if (context.proxyUsername != null && !context.proxyUsername.isEmpty()) {
+					result.getAuthenticationStore().addAuthenticationResult(new BasicAuthentication.BasicResult(
+							proxy.getURI(),
+							HttpHeader.PROXY_AUTHORIZATION,
+							context.proxyUsername,
+							context.proxyPassword != null ? context.proxyPassword : ""));
+				}
 
-		return new HttpCookie(AUTH_COOKIE_NAME, authTokenValue);
+				logger.info("login will be performed via " + proxy.getURI());
+			} catch (MalformedURLException murle) {
+				logger.error("failed to parse proxy URL " + context.proxyUrl + ", NO_PROXY will be used", murle);
+			}
+		}
+		return result;
 	}
 
-	private static URL buildLoginUrl(URI endpointUrl) {
+	private static URI buildLoginUrl(URI endpointUrl) {
 		try {
 			String url = "ws".equals(endpointUrl.getScheme()) ? "http://" : "https://";
 			url += endpointUrl.getHost();
-			url += endpointUrl.getPort() != 0 ? (":" + endpointUrl.getPort()) : "";
+			url += endpointUrl.getPort() > 0 ? (":" + endpointUrl.getPort()) : "";
 			url += AUTH_RESOURCE;
-			return new URL(url);
+			return new URI(url);
 		} catch (Exception e) {
 			throw new OctaneWSAuthException("failed to create authentication URL to login to access " + endpointUrl, e);
 		}
@@ -76,44 +163,59 @@ class AuthUtil {
 		return jsonPayload.getBytes(StandardCharsets.UTF_8);
 	}
 
-	private static Proxy setupProxy(String proxyUrl, String proxyUsername, String proxyPassword) {
-		Proxy result = Proxy.NO_PROXY;
-		if (proxyUrl != null && !proxyUrl.isEmpty()) {
-			try {
-				URL url = new URL(proxyUrl);
-				result = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(url.getHost(), url.getPort() < 0 ? url.getDefaultPort() : url.getPort()));
-
-				if (proxyUsername != null && !proxyUsername.isEmpty()) {
-					Authenticator authenticator = new Authenticator() {
-						public PasswordAuthentication getPasswordAuthentication() {
-							return (new PasswordAuthentication(proxyUsername, (proxyPassword != null ? proxyPassword : "").toCharArray()));
-						}
-					};
-					Authenticator.setDefault(authenticator);
+	/**
+	 * extracts auth token from the login response, including its expiration attributes (if any)
+	 * - when expiration is known, the returned cookie's max age is set accordingly (seconds from now), otherwise it is left as -1
+	 */
+	private static HttpCookie retrieveAuthToken(List<String> setCookieHeaders) {
+		HttpCookie result = null;
+		for (String cookiesAll : setCookieHeaders) {
+			if (cookiesAll == null || cookiesAll.isEmpty()) continue;
+			long maxAge = -1;
+			long expiresMaxAge = -1;
+			for (String cookiePair : cookiesAll.split(";")) {
+				if (cookiePair.isEmpty()) continue;
+				String[] cookieKeyValue = cookiePair.trim().split("=", 2);
+				if (result == null) {
+					if (cookieKeyValue.length != 2 ||
+							cookieKeyValue[0].isEmpty() || cookieKeyValue[1].isEmpty() ||
+							!AUTH_COOKIE_NAME.equals(cookieKeyValue[0])) continue;
+					result = new HttpCookie(AUTH_COOKIE_NAME, cookieKeyValue[1]);
+				} else if (cookieKeyValue.length == 2 && MAX_AGE_ATTRIBUTE.equalsIgnoreCase(cookieKeyValue[0])) {
+					maxAge = parseMaxAge(cookieKeyValue[1]);
+				} else if (cookieKeyValue.length == 2 && EXPIRES_ATTRIBUTE.equalsIgnoreCase(cookieKeyValue[0])) {
+					expiresMaxAge = parseExpires(cookieKeyValue[1]);
 				}
-
-				logger.info("login will be performed via " + result.toString());
-			} catch (MalformedURLException murle) {
-				logger.error("failed to parse proxy URL " + proxyUrl + ", NO_PROXY will be used", murle);
+			}
+			if (result != null) {
+				//  as per RFC 6265, Max-Age takes precedence over Expires
+				result.setMaxAge(maxAge >= 0 ? maxAge : expiresMaxAge);
+				break;
 			}
 		}
 		return result;
 	}
 
-	private static String retrieveAuthToken(URLConnection connection) {
-		String result = null;
-		String cookiesAll = connection.getHeaderField(COOKIES_HEADER_NAME);
-		if (cookiesAll != null && !cookiesAll.isEmpty()) {
-			for (String cookiePair : cookiesAll.split(";")) {
-				if (cookiePair.isEmpty()) continue;
-				String[] cookieKeyValue = cookiePair.split("=");
-				if (cookieKeyValue.length != 2 ||
-						cookieKeyValue[0].isEmpty() || cookieKeyValue[1].isEmpty() ||
-						!AUTH_COOKIE_NAME.equals(cookieKeyValue[0])) continue;
-				result = cookieKeyValue[1];
-				break;
+	private static long parseMaxAge(String maxAge) {
+		try {
+			return Math.max(0, Long.parseLong(maxAge.trim()));
+		} catch (NumberFormatException nfe) {
+			logger.warn("failed to parse auth token Max-Age attribute '" + maxAge + "', ignoring it");
+			return -1;
+		}
+	}
+
+	private static long parseExpires(String expires) {
+		String value = expires.trim();
+		for (DateTimeFormatter format : EXPIRES_FORMATS) {
+			try {
+				long secondsLeft = ZonedDateTime.parse(value, format).toEpochSecond() - System.currentTimeMillis() / 1000;
+				return Math.max(0, secondsLeft);
+			} catch (DateTimeParseException dtpe) {
+				//  try the next format
 			}
 		}
-		return result;
+		logger.warn("failed to parse auth token Expires attribute '" + expires + "', ignoring it");
+		return -1;
 	}
 }
@@ -0,0 +1,147 @@
+package com.microfocus.octane.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per client inbound dispatcher, see OctaneWSInboundDispatch for the semantics
+ * - each lane is a bounded queue drained serially: at most one drain task per lane is submitted to the executor at a time
+ * - drain task yields the executor's thread after a batch of messages, re-submitting itself if there are more, so that lanes do not starve one another
+ */
+final class InboundDispatcher {
+	private static final Logger logger = LoggerFactory.getLogger(InboundDispatcher.class);
+	private static final int DRAIN_BATCH_SIZE = 64;
+
+	private final OctaneWSClientContext context;
+	private final OctaneWSInboundDispatch dispatch;
+	private final Consumer<String> stringConsumer;
+	private final Consumer<byte[]> binaryConsumer;
+	private final Lane[] lanes;
+
+	InboundDispatcher(OctaneWSClientContext context, Consumer<String> stringConsumer, Consumer<byte[]> binaryConsumer) {
+		this.context = context;
+		this.dispatch = context.inboundDispatch;
+		this.stringConsumer = stringConsumer;
+		this.binaryConsumer = binaryConsumer;
+		this.lanes = new Lane[dispatch.lanes];
+		for (int i = 0; i < lanes.length; i++) {
+			lanes[i] = new Lane();
+		}
+	}
+
+	void dispatchString(String message) {
+		Object orderingKey = dispatch.stringOrderingKeyExtractor == null ? null : extractOrderingKey(dispatch.stringOrderingKeyExtractor, message);
+		selectLane(orderingKey).submit(() -> stringConsumer.accept(message));
+	}
+
+	/**
+	 * whole array is queued as is, as the transport aggregates each binary message into an array of its own, not reused once the callback returns;
+	 * only a slice of a larger array is copied, the rest of the array is not ours to retain
+	 */
+	void dispatchBinary(byte[] message, int offset, int len) {
+		byte[] owned = offset == 0 && len == message.length ? message : Arrays.copyOfRange(message, offset, offset + len);
+		Object orderingKey = dispatch.binaryOrderingKeyExtractor == null ? null : extractOrderingKey(m -> dispatch.binaryOrderingKeyExtractor.apply(ByteBuffer.wrap(m).asReadOnlyBuffer()), owned);
+		selectLane(orderingKey).submit(() -> binaryConsumer.accept(owned));
+	}
+
+	int depth() {
+		int result = 0;
+		for (Lane lane : lanes) {
+			result += lane.queue.size();
+		}
+		return result;
+	}
+
+	void clear() {
+		for (Lane lane : lanes) {
+			lane.queue.clear();
+		}
+	}
+
+	private Lane selectLane(Object orderingKey) {
+		return orderingKey == null || lanes.length == 1 ? lanes[0] : lanes[Math.floorMod(orderingKey.hashCode(), lanes.length)];
+	}
+
+	private <T> Object extractOrderingKey(Function<T, Object> extractor, T message) {
+		try {
+			return extractor.apply(message);
+		} catch (Exception e) {
+			logger.error("failed to extract ordering key from message of " + context + ", dispatching it to the first lane", e);
+			return null;
+		}
+	}
+
+	private final class Lane implements Runnable {
+		private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(dispatch.queueCapacity);
+		private final AtomicBoolean draining = new AtomicBoolean(false);
+
+		private void submit(Runnable delivery) {
+			switch (dispatch.overflowPolicy) {
+				case BLOCK:
+					try {
+						queue.put(delivery);
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						logger.error("interrupted while waiting for a room in the inbound queue of " + context + ", message dropped");
+						context.metrics.onInboundDropped();
+						return;
+					}
+					break;
+				case DROP_OLDEST:
+					while (!queue.offer(delivery)) {
+						if (queue.poll() != null) {
+							logger.warn("inbound queue of " + context + " is full, the oldest message dropped");
+							context.metrics.onInboundDropped();
+						}
+					}
+					break;
+				case FAIL_FAST:
+				default:
+					if (!queue.offer(delivery)) {
+						logger.warn("inbound queue of " + context + " is full (" + dispatch.queueCapacity + " messages), the new message dropped");
+						context.metrics.onInboundDropped();
+						return;
+					}
+			}
+			scheduleDrain();
+		}
+
+		private void scheduleDrain() {
+			if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+				try {
+					dispatch.executor.execute(this);
+				} catch (RejectedExecutionException ree) {
+					draining.set(false);
+					logger.error("inbound dispatch executor of " + context + " rejected the task, " + queue.size() + " message/s remain queued", ree);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				Runnable delivery;
+				int delivered = 0;
+				while (delivered++ < DRAIN_BATCH_SIZE && (delivery = queue.poll()) != null) {
+					try {
+						delivery.run();
+					} catch (Exception e) {
+						logger.error("failed to process inbound message of " + context, e);
+					}
+				}
+			} finally {
+				draining.set(false);
+				scheduleDrain();
+			}
+		}
+	}
+}
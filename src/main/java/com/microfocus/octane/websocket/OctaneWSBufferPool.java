@@ -0,0 +1,25 @@
+package com.microfocus.octane.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool of the buffers to serialize the outbound binary messages into, see OctaneWSClientService.getBufferPool
+ * - acquired buffer is cleared (position 0, limit at its capacity), its capacity is at least the requested size
+ * - once filled and flipped, the buffer is handed to the socket as is (no intermediate copy) via sendBinaryAsync(ByteBuffer, Consumer), with 'release' as the completion callback
+ * - each acquired buffer MUST be released exactly once and MUST NOT be used after having been released
+ * - implementations MUST be thread safe
+ */
+public interface OctaneWSBufferPool {
+
+	/**
+	 * @param size   minimal capacity of the buffer
+	 * @param direct whether the buffer is to be allocated off heap
+	 * @return cleared buffer
+	 */
+	ByteBuffer acquire(int size, boolean direct);
+
+	/**
+	 * @param buffer buffer previously acquired from this pool
+	 */
+	void release(ByteBuffer buffer);
+}
@@ -9,6 +9,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 public final class OctaneWSClientContext {
+	private static final int DEFAULT_OUTBOUND_QUEUE_CAPACITY = 1024;
+
 	public final URI endpointUrl;
 	public final String client;
 	public final String secret;
@@ -16,6 +18,19 @@ public final class OctaneWSClientContext {
 	public final String proxyUsername;
 	public final String proxyPassword;
 	public final Map<String, String> customHeaders;
+	public final int outboundQueueCapacity;
+	public final OctaneWSOverflowPolicy outboundOverflowPolicy;
+	public final boolean partialMessages;
+	public final OctaneWSReconnectPolicy reconnectPolicy;
+	public final OctaneWSMetrics metrics;
+	public final int maxMissedPongs;
+	public final long keepAliveInterval;
+	public final OctaneWSCompression compression;
+	public final OctaneWSInboundDispatch inboundDispatch;
+	public final int outboundBatchSize;
+	public final long outboundBatchDelay;
+	public final OctaneWSSpool spool;
+	public final OctaneWSTls tls;
 
 	private OctaneWSClientContext(
 			URI endpointUrl,
@@ -24,7 +39,20 @@ public final class OctaneWSClientContext {
 			String proxyUrl,
 			String proxyUsername,
 			String proxyPassword,
-			Map<String, String> customHeaders
+			Map<String, String> customHeaders,
+			int outboundQueueCapacity,
+			OctaneWSOverflowPolicy outboundOverflowPolicy,
+			boolean partialMessages,
+			OctaneWSReconnectPolicy reconnectPolicy,
+			OctaneWSMetrics metrics,
+			int maxMissedPongs,
+			long keepAliveInterval,
+			OctaneWSCompression compression,
+			OctaneWSInboundDispatch inboundDispatch,
+			int outboundBatchSize,
+			long outboundBatchDelay,
+			OctaneWSSpool spool,
+			OctaneWSTls tls
 	) {
 		this.endpointUrl = endpointUrl;
 		this.client = client;
@@ -33,6 +61,19 @@ public final class OctaneWSClientContext {
 		this.proxyUsername = proxyUsername;
 		this.proxyPassword = proxyPassword;
 		this.customHeaders = Collections.unmodifiableMap(customHeaders == null ? new HashMap<>() : customHeaders);
+		this.outboundQueueCapacity = outboundQueueCapacity;
+		this.outboundOverflowPolicy = outboundOverflowPolicy;
+		this.partialMessages = partialMessages;
+		this.reconnectPolicy = reconnectPolicy;
+		this.metrics = metrics;
+		this.maxMissedPongs = maxMissedPongs;
+		this.keepAliveInterval = keepAliveInterval;
+		this.compression = compression;
+		this.inboundDispatch = inboundDispatch;
+		this.outboundBatchSize = outboundBatchSize;
+		this.outboundBatchDelay = outboundBatchDelay;
+		this.spool = spool;
+		this.tls = tls;
 	}
 
 	public static OctaneWSClientContextBuilder builder() {
@@ -56,6 +97,19 @@ public final class OctaneWSClientContext {
 		private String proxyUsername;
 		private String proxyPassword;
 		private Map<String, String> customHeaders;
+		private int outboundQueueCapacity = DEFAULT_OUTBOUND_QUEUE_CAPACITY;
+		private OctaneWSOverflowPolicy outboundOverflowPolicy = OctaneWSOverflowPolicy.FAIL_FAST;
+		private boolean partialMessages = false;
+		private OctaneWSReconnectPolicy reconnectPolicy = OctaneWSReconnectPolicy.DEFAULT;
+		private OctaneWSMetrics metrics = OctaneWSMetrics.NOOP;
+		private int maxMissedPongs = 3;
+		private long keepAliveInterval = 1000;
+		private OctaneWSCompression compression;
+		private OctaneWSInboundDispatch inboundDispatch;
+		private int outboundBatchSize = 0;
+		private long outboundBatchDelay = 0;
+		private OctaneWSSpool spool;
+		private OctaneWSTls tls;
 
 		private OctaneWSClientContextBuilder() {
 		}
@@ -151,6 +205,234 @@ public final class OctaneWSClientContext {
 			return this;
 		}
 
+		/**
+		 * sets the max number of messages awaiting in the outbound queue of the asynchronous send APIs
+		 *
+		 * @param outboundQueueCapacity queue capacity, MUST be positive; defaults to 1024
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setOutboundQueueCapacity(int outboundQueueCapacity) {
+			validateBuildState();
+
+			if (outboundQueueCapacity <= 0) {
+				throw new IllegalArgumentException("outbound queue capacity MUST be positive");
+			}
+
+			this.outboundQueueCapacity = outboundQueueCapacity;
+			return this;
+		}
+
+		/**
+		 * sets the behavior of the asynchronous send APIs when the outbound queue is full
+		 *
+		 * @param outboundOverflowPolicy overflow policy; defaults to FAIL_FAST
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setOutboundOverflowPolicy(OctaneWSOverflowPolicy outboundOverflowPolicy) {
+			validateBuildState();
+
+			if (outboundOverflowPolicy == null) {
+				throw new IllegalArgumentException("outbound overflow policy, if/when set, MUST NOT be NULL");
+			}
+
+			this.outboundOverflowPolicy = outboundOverflowPolicy;
+			return this;
+		}
+
+		/**
+		 * enables streaming delivery of the inbound messages
+		 * - when enabled, messages are delivered part by part, as they arrive, to onStringMessagePart / onBinaryMessagePart
+		 * - the whole message is never aggregated in memory, the whole message callbacks are not called
+		 *
+		 * @param partialMessages whether to deliver the inbound messages part by part; defaults to false
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setPartialMessages(boolean partialMessages) {
+			validateBuildState();
+
+			this.partialMessages = partialMessages;
+			return this;
+		}
+
+		/**
+		 * sets the policy of reconnect attempts performed while the session is down
+		 *
+		 * @param reconnectPolicy reconnect policy; defaults to OctaneWSReconnectPolicy.DEFAULT
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setReconnectPolicy(OctaneWSReconnectPolicy reconnectPolicy) {
+			validateBuildState();
+
+			if (reconnectPolicy == null) {
+				throw new IllegalArgumentException("reconnect policy, if/when set, MUST NOT be NULL");
+			}
+
+			this.reconnectPolicy = reconnectPolicy;
+			return this;
+		}
+
+		/**
+		 * sets the metrics sink of the client (connections, logins, messages, sizes and latencies)
+		 * - see OctaneWSMicrometerMetrics for the Micrometer binding
+		 *
+		 * @param metrics metrics sink; defaults to OctaneWSMetrics.NOOP
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setMetrics(OctaneWSMetrics metrics) {
+			validateBuildState();
+
+			if (metrics == null) {
+				throw new IllegalArgumentException("metrics, if/when set, MUST NOT be NULL");
+			}
+
+			this.metrics = metrics;
+			return this;
+		}
+
+		/**
+		 * sets the number of consecutive keep alive PINGs left without PONG, after which the session is considered dead
+		 * - dead session is torn down and reconnected right away, without waiting for the OS to time out the connection
+		 *
+		 * @param maxMissedPongs number of missed PONGs tolerated; 0 disables the dead session detection; defaults to 3
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setMaxMissedPongs(int maxMissedPongs) {
+			validateBuildState();
+
+			if (maxMissedPongs < 0) {
+				throw new IllegalArgumentException("max missed PONGs MUST NOT be negative");
+			}
+
+			this.maxMissedPongs = maxMissedPongs;
+			return this;
+		}
+
+		/**
+		 * sets the interval of the keep alive rounds of the client
+		 * - PING is sent only if the session was idle (nothing sent nor received) during the last interval
+		 * - reconnect attempts of the disconnected client are performed at the same cadence (see also setReconnectPolicy)
+		 *
+		 * @param keepAliveInterval keep alive interval in milliseconds; defaults to 1000
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setKeepAliveInterval(long keepAliveInterval) {
+			validateBuildState();
+
+			if (keepAliveInterval <= 0) {
+				throw new IllegalArgumentException("keep alive interval MUST be greater than 0");
+			}
+
+			this.keepAliveInterval = keepAliveInterval;
+			return this;
+		}
+
+		/**
+		 * enables permessage-deflate compression, offered to the endpoint upon upgrade
+		 *
+		 * @param compression compression parameters; compression is disabled by default
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setCompression(OctaneWSCompression compression) {
+			validateBuildState();
+
+			if (compression == null) {
+				throw new IllegalArgumentException("compression, if/when set, MUST NOT be NULL");
+			}
+
+			this.compression = compression;
+			return this;
+		}
+
+		/**
+		 * enables dispatching of the inbound messages callbacks onto the worker executor, off the transport's I/O threads
+		 * - not supported along with the partial messages delivery
+		 *
+		 * @param inboundDispatch inbound dispatch configuration; by default callbacks run right on the I/O threads
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setInboundDispatch(OctaneWSInboundDispatch inboundDispatch) {
+			validateBuildState();
+
+			if (inboundDispatch == null) {
+				throw new IllegalArgumentException("inbound dispatch, if/when set, MUST NOT be NULL");
+			}
+
+			this.inboundDispatch = inboundDispatch;
+			return this;
+		}
+
+		/**
+		 * enables batching of the messages sent via the asynchronous send APIs: consecutive messages are coalesced into fewer writes and flushes
+		 * - batch is flushed once its size reaches the limit, or once there are no more queued messages and the batch delay elapsed
+		 * - size of the string messages is accounted in their UTF-8 encoded bytes
+		 * - messages sent via the blocking send APIs bypass the batch, writing (and flushing) right away
+		 *
+		 * @param outboundBatchSize max size (bytes) of the batch; 0 disables batching; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setOutboundBatchSize(int outboundBatchSize) {
+			validateBuildState();
+
+			if (outboundBatchSize < 0) {
+				throw new IllegalArgumentException("outbound batch size MUST NOT be negative");
+			}
+
+			this.outboundBatchSize = outboundBatchSize;
+			return this;
+		}
+
+		/**
+		 * sets the time the batch is held open waiting for more messages, when the outbound queue is drained
+		 * - relevant only when batching is enabled (see setOutboundBatchSize); 0 coalesces only the messages already queued
+		 *
+		 * @param outboundBatchDelay max delay (millis) of the batch flush; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setOutboundBatchDelay(long outboundBatchDelay) {
+			validateBuildState();
+
+			if (outboundBatchDelay < 0) {
+				throw new IllegalArgumentException("outbound batch delay MUST NOT be negative");
+			}
+
+			this.outboundBatchDelay = outboundBatchDelay;
+			return this;
+		}
+
+		/**
+		 * enables the outbound spool, holding the messages sent while the session is down and draining them once connected
+		 *
+		 * @param spool spool configuration; by default sending while the session is down fails
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setSpool(OctaneWSSpool spool) {
+			validateBuildState();
+
+			if (spool == null) {
+				throw new IllegalArgumentException("spool, if/when set, MUST NOT be NULL");
+			}
+
+			this.spool = spool;
+			return this;
+		}
+
+		/**
+		 * sets TLS configuration of the wss:// connections and of the logins; contexts sharing the same configuration instance share the transport and its TLS sessions cache
+		 *
+		 * @param tls TLS configuration; by default the service's transport with the JVM default trust material is used
+		 * @return the builder
+		 */
+		public OctaneWSClientContextBuilder setTls(OctaneWSTls tls) {
+			validateBuildState();
+
+			if (tls == null) {
+				throw new IllegalArgumentException("tls, if/when set, MUST NOT be NULL");
+			}
+
+			this.tls = tls;
+			return this;
+		}
+
 		public OctaneWSClientContext build() {
 			validateBuildState();
 			if (endpointUrl == null) {
@@ -163,6 +445,9 @@ public final class OctaneWSClientContext {
 			if (secret == null) {
 				secret = "";
 			}
+			if (partialMessages && inboundDispatch != null) {
+				throw new IllegalStateException("inbound dispatch is not supported along with the partial messages delivery");
+			}
 
 			OctaneWSClientContext result = new OctaneWSClientContext(
 					endpointUrl,
@@ -171,7 +456,20 @@ public final class OctaneWSClientContext {
 					proxyUrl,
 					proxyUsername,
 					proxyPassword,
-					customHeaders
+					customHeaders,
+					outboundQueueCapacity,
+					outboundOverflowPolicy,
+					partialMessages,
+					reconnectPolicy,
+					metrics,
+					maxMissedPongs,
+					keepAliveInterval,
+					compression,
+					inboundDispatch,
+					outboundBatchSize,
+					outboundBatchDelay,
+					spool,
+					tls
 			);
 			built = true;
 			return result;
@@ -1,35 +1,125 @@
 package com.microfocus.octane.websocket;
 
+import com.microfocus.octane.websocket.exceptions.OctaneWSAuthException;
+import com.microfocus.octane.websocket.exceptions.OctaneWSException;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.io.MappedByteBufferPool;
+import org.eclipse.jetty.util.ProcessorUtils;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 /**
  * Octane's WebSocket clients Service
- * - responsible for setting up global parameters
+ * - responsible for setting up global parameters (see configure)
  * - responsible for creating WebSocket clients per requested context
+ * - responsible for running the keep alive logic of all the clients on a shared, fixed size, scheduler
+ * - on JDK 21+ (multi-release JAR) the transport tasks (upgrades, logins, messages callbacks) and the keep alive run on virtual threads, unless disabled by the config
+ * - default instance (see getInstance) is JVM-wide; isolated instances, each with its own transport, threads and auth tokens, are created via create
+ * - client is bound to the service instance it was initialized by
+ * - contexts with TLS configuration (see OctaneWSTls) are served by a transport per configuration instance, sharing the threads with the default one
  */
 
 public class OctaneWSClientService {
 	private static final Logger logger = LoggerFactory.getLogger(OctaneWSClientService.class);
 	private static final Object INSTANCE_CREATION_LOCK = new Object();
+	private static final String KEEP_ALIVE_THREADS_PROPERTY = "octane.websockets.client.keepalive.threads";
+	private static final int DEFAULT_MIN_THREADS = 8;
+	private static final int DEFAULT_MAX_THREADS = 200;
+	private static final String DEFAULT_INSTANCE_NAME = "default";
+	private static OctaneWSClientServiceConfig CONFIG = OctaneWSClientServiceConfig.DEFAULT;
 	private static OctaneWSClientService INSTANCE;
 
+	private final String name;
+	private final OctaneWSClientServiceConfig config;
+	private final QueuedThreadPool transportExecutor;
 	private final WebSocketClient webSocketClient;
+	private final ScheduledThreadPoolExecutor keepAliveScheduler;
+	private final AuthTokenCache authTokenCache;
+	private final OctaneWSBufferPool bufferPool;
+	private final ConcurrentMap<String, SharedMultiplexer> multiplexers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, HttpClient> loginHttpClients = new ConcurrentHashMap<>();
+	private final ConcurrentMap<OctaneWSTls, WebSocketClient> tlsWebSocketClients = new ConcurrentHashMap<>();
 
 	public static OctaneWSClientService getInstance() {
 		if (INSTANCE == null) {
 			synchronized (INSTANCE_CREATION_LOCK) {
 				if (INSTANCE == null) {
-					INSTANCE = new OctaneWSClientService();
+					INSTANCE = new OctaneWSClientService(DEFAULT_INSTANCE_NAME, CONFIG);
 				}
 			}
 		}
 		return INSTANCE;
 	}
 
-	private OctaneWSClientService() {
-		webSocketClient = new WebSocketClient();
+	/**
+	 * sets the transport configuration of the service; MUST be called before the first call to getInstance
+	 *
+	 * @param config transport configuration
+	 */
+	public static void configure(OctaneWSClientServiceConfig config) {
+		if (config == null) {
+			throw new IllegalArgumentException("config MUST NOT be NULL");
+		}
+
+		synchronized (INSTANCE_CREATION_LOCK) {
+			if (INSTANCE != null) {
+				throw new IllegalStateException("service has already been created, configuration MAY NOT be changed any further");
+			}
+			CONFIG = config;
+		}
+	}
+
+	/**
+	 * creates an isolated service instance, with its own transport, threads pool, keep alive scheduler and auth tokens cache
+	 * - the instance is fully independent of the default one (getInstance) and of any other created one
+	 * - the instance SHOULD be stopped when not needed anymore (see stop)
+	 *
+	 * @param name   name of the instance, used in the threads names and logs
+	 * @param config transport configuration
+	 * @return newly created service instance
+	 */
+	public static OctaneWSClientService create(String name, OctaneWSClientServiceConfig config) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("name MUST NOT be NULL nor EMPTY");
+		}
+		if (config == null) {
+			throw new IllegalArgumentException("config MUST NOT be NULL");
+		}
+
+		return new OctaneWSClientService(name, config);
+	}
+
+	private OctaneWSClientService(String name, OctaneWSClientServiceConfig config) {
+		logger.info("creating service '" + name + "' with " + config);
+		this.name = name;
+		this.config = config;
+		keepAliveScheduler = new ScheduledThreadPoolExecutor(config.keepAliveThreads > 0 ? config.keepAliveThreads : resolveKeepAliveThreads(), new WSClientsKeepAliveThreadFactory(name, config.virtualThreads));
+		keepAliveScheduler.setRemoveOnCancelPolicy(true);
+
+		transportExecutor = createExecutor(name, config);
+		webSocketClient = createWebSocketClient("octane-ws-" + name, config, transportExecutor, null);
 		webSocketClient.setStopAtShutdown(true);
 
 		try {
@@ -37,6 +127,9 @@ public class OctaneWSClientService {
 		} catch (Exception e) {
 			logger.error("failed to start native WebSocket client", e);
 		}
+
+		authTokenCache = new AuthTokenCache(context -> AuthUtil.login(getLoginHttpClient(context), context), keepAliveScheduler);
+		bufferPool = new TransportBufferPool(webSocketClient);
 	}
 
 	/**
@@ -49,11 +142,330 @@ public class OctaneWSClientService {
 			throw new IllegalArgumentException("ws endpoint client MUST NOT be null");
 		}
 
+		octaneWSEndpointClient.bindTo(this);
 		octaneWSEndpointClient.start();
 		logger.info("successfully started client to " + octaneWSEndpointClient.getContext());
 	}
 
+	/**
+	 * starts websocket client connected as per specified context, without blocking the calling thread
+	 * - login, upgrade and session validation are chained asynchronously, so that many clients may be brought up concurrently
+	 *
+	 * @param octaneWSEndpointClient client instance
+	 * @return promise of the connected session; completed exceptionally with OctaneWSAuthException / OctaneWSException on failure
+	 */
+	public CompletableFuture<Session> initClientAsync(OctaneWSEndpointClient octaneWSEndpointClient) {
+		if (octaneWSEndpointClient == null) {
+			throw new IllegalArgumentException("ws endpoint client MUST NOT be null");
+		}
+
+		octaneWSEndpointClient.bindTo(this);
+		return octaneWSEndpointClient.startAsync().whenComplete((session, throwable) -> {
+			if (throwable == null) {
+				logger.info("successfully started client to " + octaneWSEndpointClient.getContext());
+			}
+		});
+	}
+
+	/**
+	 * acquires the multiplexer shared by all the consumers of the context's endpoint and credentials, creating and starting it upon the first acquisition
+	 * - acquisitions of the same endpoint URL, client and secret get the same multiplexer: one session, one login, one keep alive;
+	 * the context and the routing key extractor of the first acquisition are the effective ones
+	 * - each acquisition MUST be paired with exactly one stop of the returned multiplexer; the session is closed when the last acquirer stops it
+	 * - concurrent acquirers of the multiplexer being started wait for its start; if the start fails, the acquisitions are reverted and the failure is thrown to all of them, as by initClient
+	 *
+	 * @param context                   client context; partial messages delivery is not supported
+	 * @param stringRoutingKeyExtractor extracts routing key from the string message, MAY return NULL
+	 * @return shared multiplexer, started
+	 */
+	public OctaneWSMultiplexer multiplexer(OctaneWSClientContext context, Function<String, String> stringRoutingKeyExtractor) {
+		if (context == null) {
+			throw new IllegalArgumentException("context MUST NOT be NULL");
+		}
+		if (stringRoutingKeyExtractor == null) {
+			throw new IllegalArgumentException("string routing key extractor MUST NOT be NULL");
+		}
+
+		String key = multiplexerKeyOf(context);
+		boolean[] created = new boolean[1];
+		SharedMultiplexer shared = multiplexers.compute(key, (k, existing) -> {
+			if (existing != null) {
+				existing.references++;
+				return existing;
+			}
+			created[0] = true;
+			return new SharedMultiplexer(new OctaneWSMultiplexer(context, stringRoutingKeyExtractor));
+		});
+		if (created[0]) {
+			try {
+				initClient(shared.multiplexer);
+			} catch (RuntimeException re) {
+				multiplexers.remove(key, shared);
+				shared.started.completeExceptionally(re);
+				throw re;
+			}
+			shared.started.complete(shared.multiplexer);
+		}
+		try {
+			return shared.started.join();
+		} catch (CompletionException ce) {
+			throw (RuntimeException) ce.getCause();
+		}
+	}
+
+	/**
+	 * stops the service instance: its transport (closing all the sessions of its clients), threads and keep alive scheduler
+	 * - default instance MAY NOT be stopped explicitly, it is stopped upon the JVM shutdown
+	 */
+	public void stop() {
+		if (this == INSTANCE) {
+			throw new IllegalStateException("default service instance MAY NOT be stopped explicitly, it is stopped upon the JVM shutdown");
+		}
+
+		logger.info("stopping " + this + "...");
+		keepAliveScheduler.shutdownNow();
+		try {
+			webSocketClient.stop();
+		} catch (Exception e) {
+			logger.error("failed to stop native WebSocket client of " + this, e);
+		}
+		if (transportExecutor.getVirtualThreadsExecutor() instanceof ExecutorService) {
+			((ExecutorService) transportExecutor.getVirtualThreadsExecutor()).shutdownNow();
+		}
+	}
+
+	/**
+	 * buffers pool of the service's transport (see OctaneWSBufferPool), bounded as per the service configuration (bufferPoolMaxHeapMemory / bufferPoolMaxDirectMemory)
+	 * - pooled buffers are shared with the transport's own reads and writes, so the producers serializing into them add no buffers of their own
+	 *
+	 * @return buffers pool
+	 */
+	public OctaneWSBufferPool getBufferPool() {
+		return bufferPool;
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSClientService { name: " + name + " }";
+	}
+
 	WebSocketClient getWebSocketClient() {
 		return webSocketClient;
 	}
+
+	/**
+	 * transports of the TLS configured contexts are created lazily, one per TLS configuration instance, and are managed (stopped) along with the default one
+	 */
+	WebSocketClient getWebSocketClient(OctaneWSClientContext context) {
+		if (context.tls == null) {
+			return webSocketClient;
+		}
+
+		return tlsWebSocketClients.computeIfAbsent(context.tls, tls -> {
+			WebSocketClient result = createWebSocketClient("octane-ws-" + name + "-tls-" + tls.id, config, transportExecutor, tls);
+			result.getHttpClient().setScheduler(webSocketClient.getHttpClient().getScheduler());
+			result.getHttpClient().setByteBufferPool(webSocketClient.getBufferPool());
+			webSocketClient.addManaged(result);
+			try {
+				result.start();
+			} catch (Exception e) {
+				throw new OctaneWSException("failed to start native WebSocket client for " + tls, e);
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * releases one acquisition of the shared multiplexer
+	 *
+	 * @return true if it was the last acquisition (or the multiplexer is not registered), thus the multiplexer is to be actually stopped
+	 */
+	boolean releaseMultiplexer(OctaneWSMultiplexer multiplexer) {
+		boolean[] last = new boolean[]{true};
+		multiplexers.computeIfPresent(multiplexerKeyOf(multiplexer.getContext()), (k, existing) -> {
+			if (existing.multiplexer != multiplexer) {
+				return existing;
+			}
+			last[0] = --existing.references == 0;
+			return last[0] ? null : existing;
+		});
+		return last[0];
+	}
+
+	/**
+	 * multiplexers are keyed by endpoint URL, client and a hash of the secret, so that the registry holds no plain secrets
+	 */
+	private static String multiplexerKeyOf(OctaneWSClientContext context) {
+		return context.endpointUrl + "|" + context.client + "|" + AuthTokenCache.hash(context.secret);
+	}
+
+	ScheduledExecutorService getScheduler() {
+		return keepAliveScheduler;
+	}
+
+	AuthTokenCache getAuthTokenCache() {
+		return authTokenCache;
+	}
+
+	ScheduledFuture<?> scheduleKeepAlive(Runnable keepAliveTask, long keepAliveInterval) {
+		return keepAliveScheduler.scheduleWithFixedDelay(keepAliveTask, keepAliveInterval, keepAliveInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * login HTTP clients are created lazily, one per distinct proxy configuration, and are managed (stopped) along with the transport
+	 */
+	private HttpClient getLoginHttpClient(OctaneWSClientContext context) {
+		return loginHttpClients.computeIfAbsent(AuthUtil.loginHttpClientKey(context), key -> {
+			HttpClient result = AuthUtil.createLoginHttpClient(context, webSocketClient);
+			webSocketClient.addManaged(result);
+			try {
+				result.start();
+			} catch (Exception e) {
+				throw new OctaneWSAuthException("failed to start login HTTP client for " + context, e);
+			}
+			return result;
+		});
+	}
+
+	private static WebSocketClient createWebSocketClient(String name, OctaneWSClientServiceConfig config, Executor executor, OctaneWSTls tls) {
+		ClientConnector clientConnector = new ClientConnector();
+		clientConnector.setSelectors(config.selectors > 0 ? config.selectors : Math.max(1, ProcessorUtils.availableProcessors() / 2));
+		if (tls != null) {
+			clientConnector.setSslContextFactory(tls.newSslContextFactory());
+		}
+		HttpClient httpClient = new HttpClient(new HttpClientTransportOverHTTP(clientConnector));
+		httpClient.setName(name);
+		httpClient.setExecutor(executor);
+		if (config.bufferPoolMaxHeapMemory != 0 || config.bufferPoolMaxDirectMemory != 0) {
+			httpClient.setByteBufferPool(new MappedByteBufferPool(-1, -1, config.bufferPoolMaxHeapMemory, config.bufferPoolMaxDirectMemory));
+		}
+		if (config.connectTimeout > 0) {
+			httpClient.setConnectTimeout(config.connectTimeout);
+		}
+
+		WebSocketClient result = new WebSocketClient(httpClient);
+		if (config.connectTimeout > 0) {
+			result.setConnectTimeout(config.connectTimeout);
+		}
+		if (config.idleTimeout > 0) {
+			result.setIdleTimeout(Duration.ofMillis(config.idleTimeout));
+		}
+		if (config.inputBufferSize > 0) {
+			result.setInputBufferSize(config.inputBufferSize);
+		}
+		if (config.outputBufferSize > 0) {
+			result.setOutputBufferSize(config.outputBufferSize);
+		}
+		if (config.maxTextMessageSize > 0) {
+			result.setMaxTextMessageSize(config.maxTextMessageSize);
+		}
+		if (config.maxBinaryMessageSize > 0) {
+			result.setMaxBinaryMessageSize(config.maxBinaryMessageSize);
+		}
+		return result;
+	}
+
+	/**
+	 * selectors and non blocking I/O tasks always run on the platform threads pool; with virtual threads, the blocking tasks (messages callbacks, upgrades, logins completions)
+	 * are handed by the transport to the virtual threads executor, so that the selectors never pin the virtual threads carriers
+	 */
+	private static QueuedThreadPool createExecutor(String name, OctaneWSClientServiceConfig config) {
+		int maxThreads = config.maxThreads > 0 ? config.maxThreads : Math.max(DEFAULT_MAX_THREADS, config.minThreads);
+		int minThreads = config.minThreads > 0 ? config.minThreads : Math.min(DEFAULT_MIN_THREADS, maxThreads);
+		QueuedThreadPool result = new QueuedThreadPool(maxThreads, minThreads);
+		result.setName("octane-ws-client-" + name);
+		ExecutorService virtualThreadsExecutor = config.virtualThreads ? VirtualThreads.newExecutor("octane-ws-client-" + name + "-virtual-") : null;
+		if (virtualThreadsExecutor != null) {
+			result.setVirtualThreadsExecutor(virtualThreadsExecutor);
+		}
+		return result;
+	}
+
+	private static int resolveKeepAliveThreads() {
+		int result = Runtime.getRuntime().availableProcessors();
+		String configured = System.getProperty(KEEP_ALIVE_THREADS_PROPERTY);
+		if (configured != null && !configured.isEmpty()) {
+			try {
+				result = Integer.parseInt(configured.trim());
+			} catch (NumberFormatException nfe) {
+				logger.error("failed to parse " + KEEP_ALIVE_THREADS_PROPERTY + " value '" + configured + "', falling back to " + result);
+			}
+		}
+		return Math.max(1, result);
+	}
+
+	private static final class WSClientsKeepAliveThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadsCounter = new AtomicInteger();
+		private final String serviceName;
+		private final boolean virtualThreads;
+
+		private WSClientsKeepAliveThreadFactory(String serviceName, boolean virtualThreads) {
+			this.serviceName = serviceName;
+			this.virtualThreads = virtualThreads;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			String threadName = DEFAULT_INSTANCE_NAME.equals(serviceName)
+					? "WS clients life keeper: " + threadsCounter.incrementAndGet()
+					: "WS clients life keeper [" + serviceName + "]: " + threadsCounter.incrementAndGet();
+			if (virtualThreads) {
+				return VirtualThreads.newThread(threadName, r);
+			}
+			Thread result = new Thread(r, threadName);
+			result.setDaemon(true);
+			return result;
+		}
+	}
+
+	/**
+	 * transport's pool exposed as OctaneWSBufferPool: transport's acquired buffers are empty (flush mode), hence cleared for the producers to fill them
+	 * - the pool is resolved upon each call, as the transport sets up its default pool only when started
+	 */
+	private static final class TransportBufferPool implements OctaneWSBufferPool {
+		private final WebSocketClient transport;
+
+		private TransportBufferPool(WebSocketClient transport) {
+			this.transport = transport;
+		}
+
+		@Override
+		public ByteBuffer acquire(int size, boolean direct) {
+			if (size < 0) {
+				throw new IllegalArgumentException("size MUST NOT be negative");
+			}
+			ByteBuffer result = transportPool().acquire(size, direct);
+			result.clear();
+			return result;
+		}
+
+		@Override
+		public void release(ByteBuffer buffer) {
+			if (buffer == null) {
+				throw new IllegalArgumentException("buffer MUST NOT be NULL");
+			}
+			transportPool().release(buffer);
+		}
+
+		private ByteBufferPool transportPool() {
+			ByteBufferPool result = transport.getBufferPool();
+			if (result == null) {
+				throw new IllegalStateException("transport's buffers pool is not available, transport has not been started");
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * registry entry of the shared multiplexer; references are guarded by the registry's per key atomic updates
+	 */
+	private static final class SharedMultiplexer {
+		private final OctaneWSMultiplexer multiplexer;
+		private final CompletableFuture<OctaneWSMultiplexer> started = new CompletableFuture<>();
+		private int references = 1;
+
+		private SharedMultiplexer(OctaneWSMultiplexer multiplexer) {
+			this.multiplexer = multiplexer;
+		}
+	}
 }
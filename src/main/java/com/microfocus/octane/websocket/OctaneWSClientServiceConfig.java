@@ -0,0 +1,292 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Configuration of the WebSocket transport shared by all the clients of the service; applied once, upon the service creation
+ * - numeric settings of 0 mean that the transport's (Jetty's) default applies
+ * - virtual threads executor is used automatically when running on JDK 21+ (multi-release JAR), unless disabled; otherwise the platform threads pool is used
+ */
+public final class OctaneWSClientServiceConfig {
+	public static final OctaneWSClientServiceConfig DEFAULT = builder().build();
+
+	public final int selectors;
+	public final int minThreads;
+	public final int maxThreads;
+	public final boolean virtualThreads;
+	public final int keepAliveThreads;
+	public final int inputBufferSize;
+	public final int outputBufferSize;
+	public final long bufferPoolMaxHeapMemory;
+	public final long bufferPoolMaxDirectMemory;
+	public final long maxTextMessageSize;
+	public final long maxBinaryMessageSize;
+	public final long idleTimeout;
+	public final long connectTimeout;
+
+	private OctaneWSClientServiceConfig(
+			int selectors,
+			int minThreads,
+			int maxThreads,
+			boolean virtualThreads,
+			int keepAliveThreads,
+			int inputBufferSize,
+			int outputBufferSize,
+			long bufferPoolMaxHeapMemory,
+			long bufferPoolMaxDirectMemory,
+			long maxTextMessageSize,
+			long maxBinaryMessageSize,
+			long idleTimeout,
+			long connectTimeout
+	) {
+		this.selectors = selectors;
+		this.minThreads = minThreads;
+		this.maxThreads = maxThreads;
+		this.virtualThreads = virtualThreads;
+		this.keepAliveThreads = keepAliveThreads;
+		this.inputBufferSize = inputBufferSize;
+		this.outputBufferSize = outputBufferSize;
+		this.bufferPoolMaxHeapMemory = bufferPoolMaxHeapMemory;
+		this.bufferPoolMaxDirectMemory = bufferPoolMaxDirectMemory;
+		this.maxTextMessageSize = maxTextMessageSize;
+		this.maxBinaryMessageSize = maxBinaryMessageSize;
+		this.idleTimeout = idleTimeout;
+		this.connectTimeout = connectTimeout;
+	}
+
+	public static OctaneWSClientServiceConfigBuilder builder() {
+		return new OctaneWSClientServiceConfigBuilder();
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSClientServiceConfig { " +
+				"selectors: " + selectors +
+				", minThreads: " + minThreads +
+				", maxThreads: " + maxThreads +
+				", virtualThreads: " + virtualThreads +
+				", keepAliveThreads: " + keepAliveThreads +
+				", inputBufferSize: " + inputBufferSize +
+				", outputBufferSize: " + outputBufferSize +
+				", bufferPoolMaxHeapMemory: " + bufferPoolMaxHeapMemory +
+				", bufferPoolMaxDirectMemory: " + bufferPoolMaxDirectMemory +
+				", maxTextMessageSize: " + maxTextMessageSize +
+				", maxBinaryMessageSize: " + maxBinaryMessageSize +
+				", idleTimeout: " + idleTimeout +
+				", connectTimeout: " + connectTimeout + " }";
+	}
+
+	public static final class OctaneWSClientServiceConfigBuilder {
+		private boolean built = false;
+		private int selectors = 0;
+		private int minThreads = 0;
+		private int maxThreads = 0;
+		private boolean virtualThreads = true;
+		private int keepAliveThreads = 0;
+		private int inputBufferSize = 0;
+		private int outputBufferSize = 0;
+		private long bufferPoolMaxHeapMemory = 0;
+		private long bufferPoolMaxDirectMemory = 0;
+		private long maxTextMessageSize = 0;
+		private long maxBinaryMessageSize = 0;
+		private long idleTimeout = 0;
+		private long connectTimeout = 0;
+
+		private OctaneWSClientServiceConfigBuilder() {
+		}
+
+		/**
+		 * @param selectors number of the NIO selectors of the transport; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setSelectors(int selectors) {
+			validateBuildState();
+			validateNotNegative(selectors, "selectors");
+
+			this.selectors = selectors;
+			return this;
+		}
+
+		/**
+		 * @param minThreads min number of threads of the transport's pool; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setMinThreads(int minThreads) {
+			validateBuildState();
+			validateNotNegative(minThreads, "min threads");
+
+			this.minThreads = minThreads;
+			return this;
+		}
+
+		/**
+		 * @param maxThreads max number of threads of the transport's pool; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setMaxThreads(int maxThreads) {
+			validateBuildState();
+			validateNotNegative(maxThreads, "max threads");
+
+			this.maxThreads = maxThreads;
+			return this;
+		}
+
+		/**
+		 * @param virtualThreads whether to run the transport's blocking tasks (messages callbacks, upgrades, logins) and the keep alive on virtual threads (JDK 21+, ignored otherwise); selectors stay on the platform threads pool; defaults to true, thus enabled whenever the runtime supports them
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setVirtualThreads(boolean virtualThreads) {
+			validateBuildState();
+
+			this.virtualThreads = virtualThreads;
+			return this;
+		}
+
+		/**
+		 * @param keepAliveThreads number of threads of the keep alive scheduler; defaults to 0 ('octane.websockets.client.keepalive.threads' system property or number of CPUs)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setKeepAliveThreads(int keepAliveThreads) {
+			validateBuildState();
+			validateNotNegative(keepAliveThreads, "keep alive threads");
+
+			this.keepAliveThreads = keepAliveThreads;
+			return this;
+		}
+
+		/**
+		 * @param inputBufferSize size (bytes) of the read buffer of each session; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setInputBufferSize(int inputBufferSize) {
+			validateBuildState();
+			validateNotNegative(inputBufferSize, "input buffer size");
+
+			this.inputBufferSize = inputBufferSize;
+			return this;
+		}
+
+		/**
+		 * @param outputBufferSize size (bytes) of the write buffer of each session; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setOutputBufferSize(int outputBufferSize) {
+			validateBuildState();
+			validateNotNegative(outputBufferSize, "output buffer size");
+
+			this.outputBufferSize = outputBufferSize;
+			return this;
+		}
+
+		/**
+		 * @param bufferPoolMaxHeapMemory max heap memory (bytes) retained by the buffers pool, -1 for unlimited; defaults to 0 (transport's heuristic)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setBufferPoolMaxHeapMemory(long bufferPoolMaxHeapMemory) {
+			validateBuildState();
+			if (bufferPoolMaxHeapMemory < -1) {
+				throw new IllegalArgumentException("buffer pool max heap memory MUST NOT be less than -1");
+			}
+
+			this.bufferPoolMaxHeapMemory = bufferPoolMaxHeapMemory;
+			return this;
+		}
+
+		/**
+		 * @param bufferPoolMaxDirectMemory max direct memory (bytes) retained by the buffers pool, -1 for unlimited; defaults to 0 (transport's heuristic)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setBufferPoolMaxDirectMemory(long bufferPoolMaxDirectMemory) {
+			validateBuildState();
+			if (bufferPoolMaxDirectMemory < -1) {
+				throw new IllegalArgumentException("buffer pool max direct memory MUST NOT be less than -1");
+			}
+
+			this.bufferPoolMaxDirectMemory = bufferPoolMaxDirectMemory;
+			return this;
+		}
+
+		/**
+		 * @param maxTextMessageSize max size (chars) of the inbound text message; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setMaxTextMessageSize(long maxTextMessageSize) {
+			validateBuildState();
+			validateNotNegative(maxTextMessageSize, "max text message size");
+
+			this.maxTextMessageSize = maxTextMessageSize;
+			return this;
+		}
+
+		/**
+		 * @param maxBinaryMessageSize max size (bytes) of the inbound binary message; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setMaxBinaryMessageSize(long maxBinaryMessageSize) {
+			validateBuildState();
+			validateNotNegative(maxBinaryMessageSize, "max binary message size");
+
+			this.maxBinaryMessageSize = maxBinaryMessageSize;
+			return this;
+		}
+
+		/**
+		 * @param idleTimeout time (millis) of inactivity after which the session is closed by the transport; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setIdleTimeout(long idleTimeout) {
+			validateBuildState();
+			validateNotNegative(idleTimeout, "idle timeout");
+
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout time (millis) to wait for the TCP connection to be established; defaults to 0 (transport's default)
+		 * @return the builder
+		 */
+		public OctaneWSClientServiceConfigBuilder setConnectTimeout(long connectTimeout) {
+			validateBuildState();
+			validateNotNegative(connectTimeout, "connect timeout");
+
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		public OctaneWSClientServiceConfig build() {
+			validateBuildState();
+			if (maxThreads > 0 && minThreads > maxThreads) {
+				throw new IllegalStateException("min threads MUST NOT be greater than max threads");
+			}
+
+			OctaneWSClientServiceConfig result = new OctaneWSClientServiceConfig(
+					selectors,
+					minThreads,
+					maxThreads,
+					virtualThreads,
+					keepAliveThreads,
+					inputBufferSize,
+					outputBufferSize,
+					bufferPoolMaxHeapMemory,
+					bufferPoolMaxDirectMemory,
+					maxTextMessageSize,
+					maxBinaryMessageSize,
+					idleTimeout,
+					connectTimeout
+			);
+			built = true;
+			return result;
+		}
+
+		private void validateNotNegative(long value, String name) {
+			if (value < 0) {
+				throw new IllegalArgumentException(name + " MUST NOT be negative");
+			}
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Decoder and encoder of the same messages type and format, see OctaneWSDecoder and OctaneWSEncoder
+ * - Jackson based JSON / CBOR / Smile codecs are available as OctaneWSJacksonCodec, when 'jackson-databind' (and the relevant data format) is on the classpath
+ *
+ * @param <T> type of the messages
+ */
+public interface OctaneWSCodec<T> extends OctaneWSDecoder<T>, OctaneWSEncoder<T> {
+}
@@ -0,0 +1,157 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.exceptions.OctaneWSException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Typed endpoint client: inbound messages are decoded and delivered as T, outbound messages are encoded from T
+ * - binary messages are decoded straight from the transport's bytes (no intermediate copy or String), string messages from the aggregated String
+ * - decoding runs where the callbacks run: on the I/O threads or, if the inbound dispatch is enabled, on the dispatch executor
+ * - messages failing to decode are reported to onDecodeFailure and dropped, the session is not affected
+ * - raw messages callbacks are taken over by the decoding and MAY NOT be overridden; raw sends (sendString / sendBinary) remain available
+ *
+ * @param <T> type of the messages
+ */
+public abstract class OctaneWSCodecEndpointClient<T> extends OctaneWSEndpointClient {
+	private static final Logger logger = LoggerFactory.getLogger(OctaneWSCodecEndpointClient.class);
+	private final OctaneWSDecoder<T> decoder;
+	private final OctaneWSEncoder<T> encoder;
+
+	/**
+	 * @param context client context; partial messages delivery is not supported
+	 * @param codec   decoder of the inbound and encoder of the outbound messages
+	 */
+	protected OctaneWSCodecEndpointClient(OctaneWSClientContext context, OctaneWSCodec<T> codec) {
+		this(context, codec, codec);
+	}
+
+	/**
+	 * @param context client context; partial messages delivery is not supported
+	 * @param decoder decoder of the inbound messages
+	 * @param encoder encoder of the outbound messages
+	 */
+	protected OctaneWSCodecEndpointClient(OctaneWSClientContext context, OctaneWSDecoder<T> decoder, OctaneWSEncoder<T> encoder) {
+		super(context);
+		if (context.partialMessages) {
+			throw new IllegalArgumentException("partial messages delivery is not supported by codec endpoint client");
+		}
+		if (decoder == null) {
+			throw new IllegalArgumentException("decoder MUST NOT be NULL");
+		}
+		if (encoder == null) {
+			throw new IllegalArgumentException("encoder MUST NOT be NULL");
+		}
+		this.decoder = decoder;
+		this.encoder = encoder;
+	}
+
+	/**
+	 * extensibility point for the consumer implementations to react on the decoded messages, string and binary alike
+	 *
+	 * @param message decoded message
+	 */
+	public abstract void onMessage(T message);
+
+	/**
+	 * extensibility point for the consumer implementations to react on the messages failed to be decoded; logs the failure by default
+	 *
+	 * @param failure decoder's failure
+	 */
+	public void onDecodeFailure(Exception failure) {
+		logger.error("failed to decode message of " + getContext() + ", message dropped", failure);
+	}
+
+	/**
+	 * encodes the message and sends it, blocking till it is written; see sendString / sendBinary
+	 *
+	 * @param message message
+	 */
+	final public void send(T message) {
+		if (encoder.isBinary()) {
+			sendBinary(encodeBinary(message));
+		} else {
+			sendString(encodeString(message));
+		}
+	}
+
+	/**
+	 * encodes the message on the calling thread and enqueues it to be sent asynchronously; see sendStringAsync / sendBinaryAsync
+	 * - NULL message is rejected right away, as by the other send APIs; encoder's failure fails the promise
+	 *
+	 * @param message message, MUST NOT be NULL
+	 * @return promise, completed when the message is written or failed (including failure to encode)
+	 * @throws IllegalArgumentException if the message is NULL
+	 */
+	final public CompletableFuture<Void> sendAsync(T message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		try {
+			return encoder.isBinary() ? sendBinaryAsync(encodeBinary(message)) : sendStringAsync(encodeString(message));
+		} catch (OctaneWSException owse) {
+			CompletableFuture<Void> failure = new CompletableFuture<>();
+			failure.completeExceptionally(owse);
+			return failure;
+		}
+	}
+
+	@Override
+	final public void onStringMessage(String message) {
+		T decoded;
+		try {
+			decoded = decoder.decode(message);
+		} catch (Exception e) {
+			onDecodeFailure(e);
+			return;
+		}
+		onMessage(decoded);
+	}
+
+	@Override
+	final public void onBinaryMessage(byte[] message) {
+		deliverBinary(message, 0, message.length);
+	}
+
+	@Override
+	final public void onBinaryMessage(ByteBuffer message) {
+		super.onBinaryMessage(message);
+	}
+
+	@Override
+	final void deliverBinary(byte[] message, int offset, int len) {
+		T decoded;
+		try {
+			decoded = decoder.decode(message, offset, len);
+		} catch (Exception e) {
+			onDecodeFailure(e);
+			return;
+		}
+		onMessage(decoded);
+	}
+
+	private String encodeString(T message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		try {
+			return encoder.encodeString(message);
+		} catch (Exception e) {
+			throw new OctaneWSException("failed to encode message to " + getContext(), e);
+		}
+	}
+
+	private byte[] encodeBinary(T message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		try {
+			return encoder.encodeBinary(message);
+		} catch (Exception e) {
+			throw new OctaneWSException("failed to encode message to " + getContext(), e);
+		}
+	}
+}
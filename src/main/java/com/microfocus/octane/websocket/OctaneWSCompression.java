@@ -0,0 +1,143 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * permessage-deflate (RFC 7692) compression parameters, offered by the endpoint client upon upgrade
+ * - compression takes place only if the endpoint accepts the offer; the parameters effectively applied are those negotiated
+ * - window bits of 0 mean that the parameter is not offered (endpoint's / default 15 bits window applies)
+ * - disabling context takeover lowers the memory footprint per session at the cost of the compression ratio
+ */
+public final class OctaneWSCompression {
+	static final String EXTENSION_NAME = "permessage-deflate";
+
+	public final int clientMaxWindowBits;
+	public final int serverMaxWindowBits;
+	public final boolean clientNoContextTakeover;
+	public final boolean serverNoContextTakeover;
+
+	private OctaneWSCompression(
+			int clientMaxWindowBits,
+			int serverMaxWindowBits,
+			boolean clientNoContextTakeover,
+			boolean serverNoContextTakeover
+	) {
+		this.clientMaxWindowBits = clientMaxWindowBits;
+		this.serverMaxWindowBits = serverMaxWindowBits;
+		this.clientNoContextTakeover = clientNoContextTakeover;
+		this.serverNoContextTakeover = serverNoContextTakeover;
+	}
+
+	public static OctaneWSCompressionBuilder builder() {
+		return new OctaneWSCompressionBuilder();
+	}
+
+	/**
+	 * @return extension offer as to be sent in the Sec-WebSocket-Extensions header of the upgrade request
+	 */
+	String toExtensionOffer() {
+		StringBuilder result = new StringBuilder(EXTENSION_NAME);
+		if (clientMaxWindowBits > 0) {
+			result.append("; client_max_window_bits=").append(clientMaxWindowBits);
+		}
+		if (serverMaxWindowBits > 0) {
+			result.append("; server_max_window_bits=").append(serverMaxWindowBits);
+		}
+		if (clientNoContextTakeover) {
+			result.append("; client_no_context_takeover");
+		}
+		if (serverNoContextTakeover) {
+			result.append("; server_no_context_takeover");
+		}
+		return result.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSCompression { " +
+				"clientMaxWindowBits: " + clientMaxWindowBits +
+				", serverMaxWindowBits: " + serverMaxWindowBits +
+				", clientNoContextTakeover: " + clientNoContextTakeover +
+				", serverNoContextTakeover: " + serverNoContextTakeover + " }";
+	}
+
+	public static final class OctaneWSCompressionBuilder {
+		private boolean built = false;
+		private int clientMaxWindowBits = 0;
+		private int serverMaxWindowBits = 0;
+		private boolean clientNoContextTakeover = false;
+		private boolean serverNoContextTakeover = false;
+
+		private OctaneWSCompressionBuilder() {
+		}
+
+		/**
+		 * @param clientMaxWindowBits LZ77 window size (bits) of the messages sent by the client, 8 to 15, or 0 to not offer it; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSCompressionBuilder setClientMaxWindowBits(int clientMaxWindowBits) {
+			validateBuildState();
+			validateWindowBits(clientMaxWindowBits);
+
+			this.clientMaxWindowBits = clientMaxWindowBits;
+			return this;
+		}
+
+		/**
+		 * @param serverMaxWindowBits LZ77 window size (bits) of the messages sent by the endpoint, 8 to 15, or 0 to not offer it; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSCompressionBuilder setServerMaxWindowBits(int serverMaxWindowBits) {
+			validateBuildState();
+			validateWindowBits(serverMaxWindowBits);
+
+			this.serverMaxWindowBits = serverMaxWindowBits;
+			return this;
+		}
+
+		/**
+		 * @param clientNoContextTakeover whether the client resets its compression context per message; defaults to false
+		 * @return the builder
+		 */
+		public OctaneWSCompressionBuilder setClientNoContextTakeover(boolean clientNoContextTakeover) {
+			validateBuildState();
+
+			this.clientNoContextTakeover = clientNoContextTakeover;
+			return this;
+		}
+
+		/**
+		 * @param serverNoContextTakeover whether the endpoint is requested to reset its compression context per message; defaults to false
+		 * @return the builder
+		 */
+		public OctaneWSCompressionBuilder setServerNoContextTakeover(boolean serverNoContextTakeover) {
+			validateBuildState();
+
+			this.serverNoContextTakeover = serverNoContextTakeover;
+			return this;
+		}
+
+		public OctaneWSCompression build() {
+			validateBuildState();
+
+			OctaneWSCompression result = new OctaneWSCompression(
+					clientMaxWindowBits,
+					serverMaxWindowBits,
+					clientNoContextTakeover,
+					serverNoContextTakeover
+			);
+			built = true;
+			return result;
+		}
+
+		private void validateWindowBits(int windowBits) {
+			if (windowBits != 0 && (windowBits < 8 || windowBits > 15)) {
+				throw new IllegalArgumentException("window bits MUST be between 8 and 15 (or 0 to not offer it)");
+			}
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
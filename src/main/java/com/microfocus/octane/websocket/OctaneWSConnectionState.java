@@ -0,0 +1,33 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Connection state of the endpoint client
+ * - CLOSED -> CONNECTING -> OPEN -> RECONNECTING -> OPEN ... -> CLOSING -> CLOSED
+ * - client which is not started yet, or which failed to connect initially, is CLOSED
+ */
+public enum OctaneWSConnectionState {
+	/**
+	 * initial connect (login, upgrade) is in progress
+	 */
+	CONNECTING,
+
+	/**
+	 * session is open, messages may be sent
+	 */
+	OPEN,
+
+	/**
+	 * session was lost (closed by the endpoint, failed or detected dead), the keep alive reconnects as per the reconnect policy
+	 */
+	RECONNECTING,
+
+	/**
+	 * client has been stopped, its session is being closed
+	 */
+	CLOSING,
+
+	/**
+	 * client is not started, failed to connect initially, or is stopped
+	 */
+	CLOSED
+}
@@ -0,0 +1,17 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Listener of the endpoint client connection state transitions (see OctaneWSEndpointClient.addStateListener)
+ * - called synchronously on the thread performing the transition (transport, keep alive or the application's one), thus MUST NOT block
+ * - exceptions thrown by the listener are logged and otherwise ignored
+ */
+@FunctionalInterface
+public interface OctaneWSConnectionStateListener {
+
+	/**
+	 * @param client client which state has changed
+	 * @param from   previous state
+	 * @param to     new state
+	 */
+	void onStateChange(OctaneWSEndpointClient client, OctaneWSConnectionState from, OctaneWSConnectionState to);
+}
@@ -0,0 +1,35 @@
+package com.microfocus.octane.websocket;
+
+import java.io.IOException;
+
+/**
+ * Inbound messages decoder SPI of the typed endpoint clients (see OctaneWSCodecEndpointClient)
+ * - binary messages are decoded straight from the transport's bytes, no copy of the message is made
+ * - the bytes are valid only for the duration of the call, decoders MUST NOT retain them
+ * - decoders are called on the I/O threads (or on the inbound dispatch executor, if enabled): implementations MUST be thread safe and SHOULD reuse their buffers
+ * - the flavor not supported by a decoder fails the message (reported to OctaneWSCodecEndpointClient.onDecodeFailure)
+ *
+ * @param <T> type of the decoded messages
+ */
+public interface OctaneWSDecoder<T> {
+
+	/**
+	 * @param message string message
+	 * @return decoded message
+	 * @throws IOException if the message is malformed
+	 */
+	default T decode(String message) throws IOException {
+		throw new UnsupportedOperationException("string messages are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * @param message array holding the binary message
+	 * @param offset  offset of the message in the array
+	 * @param length  length of the message
+	 * @return decoded message
+	 * @throws IOException if the message is malformed
+	 */
+	default T decode(byte[] message, int offset, int length) throws IOException {
+		throw new UnsupportedOperationException("binary messages are not supported by " + getClass().getName());
+	}
+}
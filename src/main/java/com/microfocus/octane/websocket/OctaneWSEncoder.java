@@ -0,0 +1,36 @@
+package com.microfocus.octane.websocket;
+
+import java.io.IOException;
+
+/**
+ * Outbound messages encoder SPI of the typed endpoint clients (see OctaneWSCodecEndpointClient)
+ * - each encoder produces either string or binary messages, as told by isBinary
+ * - encoders are called on the senders threads: implementations MUST be thread safe and SHOULD reuse their buffers
+ *
+ * @param <T> type of the encoded messages
+ */
+public interface OctaneWSEncoder<T> {
+
+	/**
+	 * @return true if the messages are encoded and sent as binary messages (encodeBinary), false if as string messages (encodeString)
+	 */
+	boolean isBinary();
+
+	/**
+	 * @param message message to encode
+	 * @return string message
+	 * @throws IOException if the message may not be encoded
+	 */
+	default String encodeString(T message) throws IOException {
+		throw new UnsupportedOperationException("string messages are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * @param message message to encode
+	 * @return binary message; MUST NOT be modified after being returned
+	 * @throws IOException if the message may not be encoded
+	 */
+	default byte[] encodeBinary(T message) throws IOException {
+		throw new UnsupportedOperationException("binary messages are not supported by " + getClass().getName());
+	}
+}
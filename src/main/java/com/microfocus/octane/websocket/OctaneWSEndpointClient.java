@@ -1,10 +1,13 @@
 package com.microfocus.octane.websocket;
 
+import com.microfocus.octane.websocket.exceptions.OctaneWSAuthException;
 import com.microfocus.octane.websocket.exceptions.OctaneWSException;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.StatusCode;
 import org.eclipse.jetty.websocket.api.WebSocketListener;
+import org.eclipse.jetty.websocket.api.WebSocketPingPongListener;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.eclipse.jetty.websocket.api.exceptions.UpgradeException;
 import org.eclipse.jetty.websocket.client.ClientUpgradeRequest;
 import org.slf4j.Logger;
@@ -13,35 +16,73 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.HttpCookie;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * WebSocket client API, dedicated to interop with Octane's websocket endpoint
  * - each client is oriented to serve only one specific Octane instance
  * - each client is oriented to serve only one specific Octane endpoint
  * - each client will attempt to preserve/renew connection if/when disconnected
+ * - each client PINGs its endpoint when idle, measuring the round trip time and detecting dead connections by the missed PONGs
+ * - connection state (see OctaneWSConnectionState) and its session are held as a single immutable snapshot, replaced atomically upon each transition;
+ * sends read the snapshot once and never take locks
  */
-public abstract class OctaneWSEndpointClient implements WebSocketListener {
+public abstract class OctaneWSEndpointClient implements WebSocketListener, WebSocketPingPongListener {
 	private static final Logger logger = LoggerFactory.getLogger(OctaneWSEndpointClient.class);
-	private final ExecutorService keepAliveService = Executors.newSingleThreadExecutor(new WSEndpointClientKeepAliveThreadFactory());
+	private static final int PING_PAYLOAD_SIZE = 2 * Long.BYTES;
 	private final OctaneWSClientContext context;
-	private HttpCookie cachedAuthToken;
-	private Session session;
+	private final WriteCallback pingCallback = new PingCallback();
+	private final OutboundQueue outboundQueue;
+	private final OutboundSpool spool;
+	private final boolean binaryViewCallbackOverridden;
+	private final Object transportListener;
+	private final InboundDispatcher inboundDispatcher;
+	private volatile ScheduledFuture<?> keepAliveTask;
+	private ScheduledFuture<?> reconnectTask;
+	//  sessions reported to the metrics as connected; closes of the others (eg the session opened after the stop) are not reported, keeping the open sessions balanced
+	private final AtomicInteger connectedSessions = new AtomicInteger();
+	private volatile boolean stopped = false;
+	private final AtomicReference<CompletableFuture<Session>> pendingConnect = new AtomicReference<>();
+	private final ReconnectBackoff reconnectBackoff;
+	private volatile OctaneWSClientService service;
+	private final AtomicLong pingSequence = new AtomicLong();
+	private volatile long lastPongSequence = 0;
+	private volatile long lastPingRoundTripNanos = -1;
+	private volatile long lastActivityNanos = System.nanoTime();
+	private final AtomicReference<ConnectionSnapshot> connection = new AtomicReference<>(ConnectionSnapshot.INITIAL);
+	private final List<OctaneWSConnectionStateListener> stateListeners = new CopyOnWriteArrayList<>();
 
 	protected OctaneWSEndpointClient(OctaneWSClientContext context) {
 		if (context == null) {
 			throw new IllegalArgumentException("context MUST NOT be null");
 		}
 		this.context = context;
+		this.spool = context.spool == null ? null : new OutboundSpool(context, this::openSession, this::onActivity);
+		this.outboundQueue = new OutboundQueue(context, this::openSession, this::onActivity, () -> service == null ? null : service.getScheduler(), spool);
+		this.reconnectBackoff = new ReconnectBackoff(context.reconnectPolicy);
+		this.binaryViewCallbackOverridden = isOverridden("onBinaryMessage", ByteBuffer.class);
+		this.transportListener = context.partialMessages ? new PartialMessagesListener(this) : this;
+		this.inboundDispatcher = context.inboundDispatch == null ? null : new InboundDispatcher(context, this::onStringMessage, message -> deliverBinary(message, 0, message.length));
 	}
 
 	/**
 	 * extensibility point for the consumer implementations to react on binary messages
+	 * - when only this flavor is implemented, the message bytes are copied if/when they are a slice of a larger array
 	 *
 	 * @param message binary message
 	 */
@@ -49,6 +90,19 @@ public abstract class OctaneWSEndpointClient implements WebSocketListener {
 		throw new IllegalStateException("not implemented");
 	}
 
+	/**
+	 * extensibility point for the consumer implementations to react on binary messages, without copying them
+	 * - the buffer is a read-only view of exactly the message bytes
+	 * - when overridden, this flavor takes precedence and the byte array flavor is not called
+	 *
+	 * @param message binary message view
+	 */
+	public void onBinaryMessage(ByteBuffer message) {
+		byte[] bytes = new byte[message.remaining()];
+		message.duplicate().get(bytes);
+		onBinaryMessage(bytes);
+	}
+
 	/**
 	 * extensibility point for the consumer implementation to react on string messages
 	 *
@@ -58,67 +112,365 @@ public abstract class OctaneWSEndpointClient implements WebSocketListener {
 		throw new IllegalStateException("not implemented");
 	}
 
+	/**
+	 * extensibility point for the consumer implementations to react on string messages part by part, as they arrive
+	 * - relevant only when the partial messages delivery is enabled in the context
+	 *
+	 * @param part string message part
+	 * @param last whether this is the last part of the message
+	 */
+	public void onStringMessagePart(String part, boolean last) {
+		throw new IllegalStateException("not implemented");
+	}
+
+	/**
+	 * extensibility point for the consumer implementations to react on binary messages part by part, as they arrive
+	 * - relevant only when the partial messages delivery is enabled in the context
+	 * - the buffer is a read-only view of the transport's buffer, valid only for the duration of the call
+	 *
+	 * @param part binary message part
+	 * @param last whether this is the last part of the message
+	 */
+	public void onBinaryMessagePart(ByteBuffer part, boolean last) {
+		throw new IllegalStateException("not implemented");
+	}
+
 	@Override
 	public void onWebSocketBinary(byte[] message, int offset, int len) {
-		onBinaryMessage(message);
+		onActivity();
+		context.metrics.onBinaryMessageReceived(len);
+		if (inboundDispatcher != null) {
+			inboundDispatcher.dispatchBinary(message, offset, len);
+		} else {
+			deliverBinary(message, offset, len);
+		}
 	}
 
 	@Override
 	public void onWebSocketText(String message) {
-		onStringMessage(message);
+		onActivity();
+		context.metrics.onStringMessageReceived(message.length());
+		if (inboundDispatcher != null) {
+			inboundDispatcher.dispatchString(message);
+		} else {
+			onStringMessage(message);
+		}
 	}
 
 	@Override
 	public void onWebSocketClose(int code, String reason) {
-		session = null;
+		if (connectedSessions.getAndUpdate(count -> count > 0 ? count - 1 : 0) > 0) {
+			context.metrics.onClosed(code);
+		}
 		logger.info("session to " + context + " has been closed; code: " + code + ", reason: " + reason);
+		ConnectionSnapshot current;
+		do {
+			current = connection.get();
+			if (current.session != null && current.session.isOpen()) {
+				//  late close of a previous session, the current one is alive
+				return;
+			}
+		} while (!transition(current, stopped ? OctaneWSConnectionState.CLOSED : current.state == OctaneWSConnectionState.OPEN ? OctaneWSConnectionState.RECONNECTING : current.state, null));
 	}
 
 	@Override
 	public void onWebSocketConnect(Session session) {
-		if (this.session != null && this.session.isOpen()) {
-			logger.warn("found opened session while processing onWebSocketConnect event, abnormal behavior");
-			this.session.close();
+		ConnectionSnapshot current;
+		do {
+			current = connection.get();
+			if (stopped) {
+				logger.info("session to " + context + " has been opened after the client was stopped, closing it");
+				session.close(StatusCode.NORMAL, "client requested to close (by hosting application)");
+				return;
+			}
+			if (current.session != null && current.session != session && current.session.isOpen()) {
+				logger.warn("found opened session while processing onWebSocketConnect event, abnormal behavior");
+				current.session.close();
+			}
+		} while (!transition(current, OctaneWSConnectionState.OPEN, session));
+		lastPongSequence = pingSequence.get();
+		onActivity();
+		if (spool != null) {
+			spool.drain();
 		}
-		this.session = session;
+		connectedSessions.incrementAndGet();
+		context.metrics.onConnected();
 		logger.info("session to " + context + " has been opened");
 	}
 
 	@Override
 	public void onWebSocketError(Throwable throwable) {
+		context.metrics.onError();
 		logger.error("session to " + context + " experienced error", throwable);
 	}
 
+	/**
+	 * PINGs of the endpoint are answered right away, as the automatic answering of the transport is off once the PONGs are listened to
+	 */
+	@Override
+	public void onWebSocketPing(ByteBuffer payload) {
+		Session current = openSession();
+		if (current != null) {
+			ByteBuffer pongPayload = ByteBuffer.allocate(payload.remaining());
+			pongPayload.put(payload.duplicate()).flip();
+			current.getRemote().sendPong(pongPayload, WriteCallback.NOOP);
+		}
+	}
+
+	/**
+	 * PONG carries back the sequence number and the send time of the PING it answers
+	 * - unsolicited PONGs and PONGs of the previous sessions are ignored
+	 */
+	@Override
+	public void onWebSocketPong(ByteBuffer payload) {
+		if (payload == null || payload.remaining() != PING_PAYLOAD_SIZE) {
+			return;
+		}
+		long sequence = payload.getLong(payload.position());
+		long sentAt = payload.getLong(payload.position() + Long.BYTES);
+		if (sequence > lastPongSequence && sequence <= pingSequence.get()) {
+			lastPongSequence = sequence;
+			lastPingRoundTripNanos = System.nanoTime() - sentAt;
+			context.metrics.onPongReceived(lastPingRoundTripNanos);
+		}
+	}
+
 	public void stop() {
 		logger.info("stopping Octane WS endpoint client...");
-		if (!keepAliveService.isShutdown()) {
-			logger.info("stopping keep alive service...");
-			keepAliveService.shutdown();
+		stopped = true;
+		ScheduledFuture<?> task = keepAliveTask;
+		if (task != null && !task.isCancelled()) {
+			logger.info("stopping keep alive worker...");
+			task.cancel(false);
+			service.getAuthTokenCache().release(context);
 		}
-		if (session != null && session.isOpen()) {
-			logger.info("closing session...");
-			session.close(StatusCode.NORMAL, "client requested to close (by hosting application)");
+		cancelReconnect();
+		ConnectionSnapshot current = connection.get();
+		while (current.state != OctaneWSConnectionState.CLOSING && current.state != OctaneWSConnectionState.CLOSED) {
+			if (transition(current, OctaneWSConnectionState.CLOSING, null)) {
+				if (current.session != null && current.session.isOpen()) {
+					logger.info("closing session...");
+					current.session.close(StatusCode.NORMAL, "client requested to close (by hosting application)");
+				} else {
+					transition(connection.get(), OctaneWSConnectionState.CLOSED, null);
+				}
+				break;
+			}
+			current = connection.get();
+		}
+		outboundQueue.failAll(new IllegalStateException("client has been stopped"));
+		if (inboundDispatcher != null) {
+			inboundDispatcher.clear();
+		}
+		if (spool != null) {
+			spool.flush();
 		}
 	}
 
+	/**
+	 * sends string message, blocking till it is written
+	 * - when the spool is enabled, the message is spooled (and the method returns right away) if the session is down or there are messages spooled already
+	 *
+	 * @param message string message
+	 */
 	final public void sendString(String message) {
-		validateWorkable();
+		Session current = openSession();
+		if (spool != null && spoolIfNeeded(current != null, message)) {
+			return;
+		}
+		validateWorkable(current);
+		long sendStarted = System.nanoTime();
 		try {
-			session.getRemote().sendString(message);
+			current.getRemote().sendString(message);
+			onActivity();
+			context.metrics.onStringMessageSent(message.length(), System.nanoTime() - sendStarted);
 		} catch (IOException ioe) {
+			context.metrics.onSendFailed();
 			logger.error("failed to send string to " + context, ioe);
 			throw new OctaneWSException("failed to send string to " + context, ioe);
 		}
 	}
 
+	/**
+	 * sends binary message, blocking till it is written
+	 * - when the spool is enabled, the message is spooled (and the method returns right away) if the session is down or there are messages spooled already
+	 *
+	 * @param message binary message
+	 */
 	final public void sendBinary(byte[] message) {
-		validateWorkable();
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		sendBinary(ByteBuffer.wrap(message));
+	}
+
+	/**
+	 * sends slice of the array as binary message, blocking till it is written; see sendBinary(ByteBuffer)
+	 *
+	 * @param message array holding the binary message
+	 * @param offset  offset of the message in the array
+	 * @param length  length of the message
+	 */
+	final public void sendBinary(byte[] message, int offset, int length) {
+		sendBinary(wrap(message, offset, length));
+	}
+
+	/**
+	 * sends the remaining bytes of the buffer (heap or direct) as binary message, blocking till it is written; no copy of the buffer is made
+	 * - the buffer's position and limit are not changed; once the method returns, the buffer MAY be reused / released
+	 * - when the spool is enabled, the message is spooled (and the method returns right away) if the session is down or there are messages spooled already
+	 *
+	 * @param message binary message
+	 */
+	final public void sendBinary(ByteBuffer message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		Session current = openSession();
+		if (spool != null && spoolIfNeeded(current != null, message)) {
+			return;
+		}
+		validateWorkable(current);
+		int size = message.remaining();
+		long sendStarted = System.nanoTime();
 		try {
-			session.getRemote().sendBytes(ByteBuffer.wrap(message));
+			current.getRemote().sendBytes(message.slice());
+			onActivity();
+			context.metrics.onBinaryMessageSent(size, System.nanoTime() - sendStarted);
 		} catch (IOException ioe) {
-			logger.error("failed to send string to " + context, ioe);
-			throw new OctaneWSException("failed to send string to " + context, ioe);
+			context.metrics.onSendFailed();
+			logger.error("failed to send binary to " + context, ioe);
+			throw new OctaneWSException("failed to send binary to " + context, ioe);
+		}
+	}
+
+	/**
+	 * enqueues string message to be sent asynchronously; the calling thread is never blocked on socket I/O
+	 * - messages sent via the asynchronous APIs are written in the order of enqueueing
+	 * - when the outbound queue is full, the context's outbound overflow policy is applied
+	 *
+	 * @param message string message
+	 * @return promise, completed when the message is written or failed
+	 */
+	final public CompletableFuture<Void> sendStringAsync(String message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		return outboundQueue.enqueueString(message);
+	}
+
+	/**
+	 * enqueues binary message to be sent asynchronously; the calling thread is never blocked on socket I/O
+	 * - the message array MUST NOT be modified until the returned promise is completed
+	 *
+	 * @param message binary message
+	 * @return promise, completed when the message is written or failed
+	 */
+	final public CompletableFuture<Void> sendBinaryAsync(byte[] message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		return outboundQueue.enqueueBinary(ByteBuffer.wrap(message), null);
+	}
+
+	/**
+	 * enqueues slice of the array as binary message to be sent asynchronously; see sendBinaryAsync(ByteBuffer)
+	 *
+	 * @param message array holding the binary message
+	 * @param offset  offset of the message in the array
+	 * @param length  length of the message
+	 * @return promise, completed when the message is written or failed
+	 */
+	final public CompletableFuture<Void> sendBinaryAsync(byte[] message, int offset, int length) {
+		return outboundQueue.enqueueBinary(wrap(message, offset, length), null);
+	}
+
+	/**
+	 * enqueues the remaining bytes of the buffer (heap or direct) as binary message to be sent asynchronously; no copy of the buffer is made
+	 * - the buffer's position and limit are not changed; its content MUST NOT be modified until the returned promise is completed
+	 *
+	 * @param message binary message
+	 * @return promise, completed when the message is written or failed
+	 */
+	final public CompletableFuture<Void> sendBinaryAsync(ByteBuffer message) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		return outboundQueue.enqueueBinary(message, null);
+	}
+
+	/**
+	 * enqueues the remaining bytes of the (typically pooled) buffer as binary message to be sent asynchronously, handing the buffer to the socket as is
+	 * - release is called exactly once, with the buffer, when the transport is done with it: written, failed, dropped or copied into the spool;
+	 * it is called before the returned promise completes, on the thread completing the send (I/O thread or the calling one), and SHOULD NOT block
+	 * - the buffer MUST NOT be modified until released; typical release is the pool's one, see OctaneWSClientService.getBufferPool
+	 *
+	 * @param message binary message
+	 * @param release callback to release the buffer with
+	 * @return promise, completed when the message is written or failed
+	 */
+	final public CompletableFuture<Void> sendBinaryAsync(ByteBuffer message, Consumer<ByteBuffer> release) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		if (release == null) {
+			throw new IllegalArgumentException("release MUST NOT be NULL");
+		}
+		return outboundQueue.enqueueBinary(message, release);
+	}
+
+	/**
+	 * @return number of messages awaiting in the outbound queue of the asynchronous send APIs
+	 */
+	final public int getOutboundQueueDepth() {
+		return outboundQueue.depth();
+	}
+
+	/**
+	 * @return number of inbound messages awaiting to be dispatched to the callbacks; always 0 when the inbound dispatch is not enabled
+	 */
+	final public int getInboundQueueDepth() {
+		return inboundDispatcher == null ? 0 : inboundDispatcher.depth();
+	}
+
+	/**
+	 * @return number of messages held in the spool; always 0 when the spool is not enabled
+	 */
+	final public int getSpoolSize() {
+		return spool == null ? 0 : spool.size();
+	}
+
+	/**
+	 * @return round trip time (in nanoseconds) of the latest answered PING, or -1 if none was answered yet
+	 */
+	final public long getLastPingRoundTripNanos() {
+		return lastPingRoundTripNanos;
+	}
+
+	/**
+	 * @return current connection state
+	 */
+	final public OctaneWSConnectionState getState() {
+		return connection.get().state;
+	}
+
+	/**
+	 * registers listener of the connection state transitions
+	 *
+	 * @param listener state listener
+	 */
+	final public void addStateListener(OctaneWSConnectionStateListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("listener MUST NOT be NULL");
 		}
+		stateListeners.add(listener);
+	}
+
+	/**
+	 * @param listener previously registered state listener
+	 */
+	final public void removeStateListener(OctaneWSConnectionStateListener listener) {
+		stateListeners.remove(listener);
 	}
 
 	/**
@@ -129,16 +481,51 @@ public abstract class OctaneWSEndpointClient implements WebSocketListener {
 		return context;
 	}
 
+	/**
+	 * @return service the client is bound to, NULL if not (yet) bound
+	 */
+	final OctaneWSClientService getBoundService() {
+		return service;
+	}
+
+	/**
+	 * marks the session as active (data message sent or received), so that the keep alive PINGs are suppressed for the next interval
+	 * - control frames (PING / PONG) are not considered an activity
+	 */
+	final void onActivity() {
+		lastActivityNanos = System.nanoTime();
+	}
+
+	/**
+	 * binds the client to the service it is being started by; client, once bound, MAY NOT be started by any other service
+	 */
+	final synchronized void bindTo(OctaneWSClientService service) {
+		if (this.service != null && this.service != service) {
+			throw new IllegalStateException("client is already bound to " + this.service + ", MAY NOT be started by " + service);
+		}
+		this.service = service;
+	}
+
 	final void start() {
-		startInternal();
-		if (session == null) {
-			throw new OctaneWSException("finally failed to connect to " + context + ", see previous logs for more info / errors");
-		} else {
-			keepAliveService.execute(this::keepAlive);
+		try {
+			startAsync().join();
+		} catch (CompletionException ce) {
+			Throwable cause = ce.getCause() != null ? ce.getCause() : ce;
+			if (cause instanceof OctaneWSException || cause instanceof OctaneWSAuthException) {
+				throw (RuntimeException) cause;
+			}
+			throw new OctaneWSException("finally failed to connect to " + context + ", see previous logs for more info / errors", cause);
 		}
 	}
 
-	private ClientUpgradeRequest prepareUpgradeRequest(HttpCookie authToken, Map<String, String> customHeaders) {
+	final CompletableFuture<Session> startAsync() {
+		return connectAsync().thenApply(s -> {
+			scheduleKeepAlive();
+			return s;
+		});
+	}
+
+	private ClientUpgradeRequest prepareUpgradeRequest(HttpCookie authToken, Map<String, String> customHeaders, OctaneWSCompression compression) {
 		if (authToken == null) {
 			throw new IllegalArgumentException("auth token MUST NOT be NULL");
 		}
@@ -155,91 +542,324 @@ public abstract class OctaneWSEndpointClient implements WebSocketListener {
 			}
 		}
 
+		//  offer compression
+		if (compression != null) {
+			result.addExtensions(compression.toExtensionOffer());
+		}
+
 		return result;
 	}
 
-	private void startInternal() {
-		boolean done = false;
-		int maxAttempts = 2;
-		int attempts = 0;
-		HttpCookie authToken = cachedAuthToken;
+	/**
+	 * performs the whole connect flow (login if needed, upgrade, re-login and re-upgrade on 401, session validation) without blocking the calling thread
+	 * - concurrent requests to connect are collapsed into the one in flight
+	 */
+	private CompletableFuture<Session> connectAsync() {
+		CompletableFuture<Session> result = new CompletableFuture<>();
+		while (!pendingConnect.compareAndSet(null, result)) {
+			CompletableFuture<Session> existing = pendingConnect.get();
+			if (existing != null) {
+				return existing;
+			}
+		}
+		ConnectionSnapshot current = connection.get();
+		if (current.state == OctaneWSConnectionState.CLOSED && !stopped) {
+			transition(current, OctaneWSConnectionState.CONNECTING, null);
+		}
 
-		if (authToken == null) {
-			authToken = AuthUtil.login(context);
+		boundService()
+				.getAuthTokenCache()
+				.acquire(context)
+				.thenCompose(token -> upgradeAsync(token, true))
+				.whenComplete((connectedSession, throwable) -> {
+					pendingConnect.compareAndSet(result, null);
+					if (throwable != null) {
+						context.metrics.onConnectFailed();
+						//  initial connect failure (no keep alive yet) leaves the client CLOSED, reconnect failure leaves it RECONNECTING
+						ConnectionSnapshot failed = connection.get();
+						if (keepAliveTask == null && (failed.state == OctaneWSConnectionState.CONNECTING || failed.state == OctaneWSConnectionState.RECONNECTING)) {
+							transition(failed, OctaneWSConnectionState.CLOSED, null);
+						}
+						result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+					} else {
+						result.complete(connectedSession);
+					}
+				});
+		return result;
+	}
+
+	private CompletableFuture<Session> upgradeAsync(HttpCookie authToken, boolean reLoginOnUnauthorized) {
+		CompletableFuture<Session> connectPromise;
+		try {
+			ClientUpgradeRequest upgradeRequest = prepareUpgradeRequest(authToken, context.customHeaders, context.compression);
+			connectPromise = boundService()
+					.getWebSocketClient(context)
+					.connect(transportListener, context.endpointUrl, upgradeRequest);
+		} catch (Exception e) {
+			connectPromise = new CompletableFuture<>();
+			connectPromise.completeExceptionally(e);
 		}
 
-		while (!done && attempts++ < maxAttempts) {
-			try {
-				ClientUpgradeRequest upgradeRequest = prepareUpgradeRequest(authToken, context.customHeaders);
+		return connectPromise.handle((connectedSession, throwable) -> {
+			if (throwable == null) {
+				return validateSession(connectedSession);
+			}
 
-				Future<Session> connectPromise = OctaneWSClientService.getInstance()
-						.getWebSocketClient()
-						.connect(this, context.endpointUrl, upgradeRequest);
-				session = connectPromise.get();
-				//  TODO: validate session?
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+			if (reLoginOnUnauthorized && cause instanceof UpgradeException && ((UpgradeException) cause).getResponseStatusCode() == HttpStatus.UNAUTHORIZED_401) {
+				logger.warn("failed to connect to " + context + " due to authentication (401), will re-login and retry once");
+				AuthTokenCache authTokenCache = boundService().getAuthTokenCache();
+				authTokenCache.invalidate(context, authToken);
+				return authTokenCache.acquire(context).thenCompose(token -> upgradeAsync(token, false));
+			}
 
-				logger.info("starting keep alive worker for client of " + context);
+			CompletableFuture<Session> failure = new CompletableFuture<>();
+			failure.completeExceptionally(new OctaneWSException("finally failed to connect to " + context, cause));
+			return failure;
+		}).thenCompose(Function.identity());
+	}
 
-				done = true;
-			} catch (Exception e) {
-				if (e.getCause() != null && e.getCause() instanceof UpgradeException && ((UpgradeException) e.getCause()).getResponseStatusCode() == HttpStatus.UNAUTHORIZED_401) {
-					logger.warn("failed to connect to " + context + " due to authentication (401); attempt " + attempts + " out of max " + maxAttempts);
-					authToken = AuthUtil.login(context);
-				} else {
-					throw new OctaneWSException("finally failed to connect to " + context, e);
+	private CompletableFuture<Session> validateSession(Session connectedSession) {
+		CompletableFuture<Session> result = new CompletableFuture<>();
+		if (connectedSession == null || !connectedSession.isOpen()) {
+			result.completeExceptionally(new OctaneWSException("finally failed to connect to " + context + ", session was closed right upon upgrade"));
+		} else {
+			//  the state has already been moved to OPEN by onWebSocketConnect, which precedes the completion of the upgrade
+			reconnectBackoff.onSuccess();
+			result.complete(connectedSession);
+		}
+		return result;
+	}
+
+	private synchronized void scheduleKeepAlive() {
+		if (keepAliveTask == null) {
+			logger.info("starting keep alive worker for client of " + context);
+			OctaneWSClientService service = boundService();
+			service.getAuthTokenCache().retain(context);
+			keepAliveTask = service.scheduleKeepAlive(this::keepAlive, context.keepAliveInterval);
+		}
+	}
+
+	/**
+	 * single keep alive round, scheduled periodically by the service's shared keep alive scheduler
+	 * - MUST NOT throw, otherwise the scheduler will silently suppress any further rounds
+	 * - MUST NOT block on socket I/O, the scheduler's threads are shared by all the clients
+	 */
+	private void keepAlive() {
+		if (stopped) {
+			return;
+		}
+		try {
+			ConnectionSnapshot snapshot = connection.get();
+			if (snapshot.state == OctaneWSConnectionState.OPEN && !snapshot.session.isOpen()) {
+				//  session closed without (yet) notifying the listener
+				transition(snapshot, OctaneWSConnectionState.RECONNECTING, null);
+				snapshot = connection.get();
+			}
+			if (snapshot.state == OctaneWSConnectionState.OPEN) {
+				Session current = snapshot.session;
+				long missedPongs = pingSequence.get() - lastPongSequence;
+				if (context.maxMissedPongs > 0 && missedPongs > context.maxMissedPongs) {
+					if (transition(snapshot, OctaneWSConnectionState.RECONNECTING, null)) {
+						logger.error("session to " + context + " missed " + missedPongs + " PONGs in a row, considering it dead and reconnecting");
+						context.metrics.onDeadSessionDetected();
+						current.disconnect();
+					}
+					return;
 				}
+				if (System.nanoTime() - lastActivityNanos < TimeUnit.MILLISECONDS.toNanos(context.keepAliveInterval)) {
+					return;
+				}
+				ByteBuffer pingPayload = ByteBuffer.allocate(PING_PAYLOAD_SIZE);
+				pingPayload.putLong(pingSequence.incrementAndGet()).putLong(System.nanoTime()).flip();
+				current.getRemote().sendPing(pingPayload, pingCallback);
 			}
+		} catch (Exception e) {
+			logger.error("failed to PING endpoint, will attempt to reconnect if relevant", e);
+		}
+	}
+
+	/**
+	 * schedules single reconnect attempt on the service's scheduler at the delay computed by the reconnect backoff (not rounded to the keep alive rounds)
+	 * - no-op if an attempt is already scheduled or in flight
+	 */
+	private synchronized void scheduleReconnect(long delay) {
+		if (stopped || reconnectTask != null || pendingConnect.get() != null) {
+			return;
+		}
+		try {
+			reconnectTask = boundService().getScheduler().schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException ree) {
+			logger.debug("scheduler is down, client of " + context + " won't be reconnected");
 		}
+	}
 
-		if (done) {
-			cachedAuthToken = authToken;
+	private synchronized void cancelReconnect() {
+		if (reconnectTask != null) {
+			reconnectTask.cancel(false);
+			reconnectTask = null;
 		}
 	}
 
-	private void keepAlive() {
-		ByteBuffer pingBytes = ByteBuffer.wrap(new byte[]{0});
-		while (!keepAliveService.isShutdown()) {
-			try {
-				if (session != null && session.isOpen()) {
-					session.getRemote().sendPing(pingBytes);
-				} else {
-					startInternal();
+	/**
+	 * single reconnect attempt; its failure schedules the next one as per the reconnect backoff
+	 * - MUST NOT throw, same as the keep alive round it runs on the shared scheduler
+	 */
+	private void reconnect() {
+		synchronized (this) {
+			reconnectTask = null;
+		}
+		if (stopped || connection.get().state != OctaneWSConnectionState.RECONNECTING) {
+			return;
+		}
+		context.metrics.onReconnectAttempt();
+		try {
+			connectAsync().whenComplete((connectedSession, throwable) -> {
+				if (throwable != null) {
+					onReconnectFailure(throwable);
 				}
-			} catch (Exception e) {
-				logger.error("failed to PING endpoint, will attempt to reconnect if relevant");
-				safeSleep(3000);
-			} finally {
-				safeSleep(1000);
+			});
+		} catch (Exception e) {
+			onReconnectFailure(e);
+		}
+	}
+
+	private void onReconnectFailure(Throwable throwable) {
+		long delay = reconnectBackoff.onFailure(System.currentTimeMillis());
+		if (reconnectBackoff.isCircuitOpen(System.currentTimeMillis())) {
+			logger.error("failed to reconnect to " + context + " " + reconnectBackoff.getConsecutiveFailures() + " times in a row, circuit breaker is open for the next " + delay + "ms", throwable);
+		} else {
+			logger.error("failed to reconnect to " + context + ", will retry in " + delay + "ms", throwable);
+		}
+		scheduleReconnect(delay);
+	}
+
+	/**
+	 * delivers the binary message (or its slice) to the consumer's callbacks; overridden by the typed clients to decode the message straight from the array
+	 */
+	void deliverBinary(byte[] message, int offset, int len) {
+		if (binaryViewCallbackOverridden) {
+			onBinaryMessage(ByteBuffer.wrap(message, offset, len).slice().asReadOnlyBuffer());
+		} else {
+			onBinaryMessage(offset == 0 && len == message.length ? message : Arrays.copyOfRange(message, offset, offset + len));
+		}
+	}
+
+	private static ByteBuffer wrap(byte[] message, int offset, int length) {
+		if (message == null) {
+			throw new IllegalArgumentException("message MUST NOT be NULL");
+		}
+		if (offset < 0 || length < 0 || offset > message.length - length) {
+			throw new IllegalArgumentException("offset (" + offset + ") and length (" + length + ") MUST be within the message array (" + message.length + " bytes)");
+		}
+		return ByteBuffer.wrap(message, offset, length);
+	}
+
+	private OctaneWSClientService boundService() {
+		OctaneWSClientService result = service;
+		if (result == null) {
+			throw new IllegalStateException("client is not bound to any service; clients are to be started via OctaneWSClientService.initClient / initClientAsync");
+		}
+		return result;
+	}
+
+	private boolean spoolIfNeeded(boolean workable, String message) {
+		return (!workable || !spool.isEmpty()) && spoolIfNeeded(workable, OutboundSpool.TEXT, message.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private boolean spoolIfNeeded(boolean workable, ByteBuffer message) {
+		if (workable && spool.isEmpty()) {
+			return false;
+		}
+		//  spool keeps its own copy of the message, so that the buffer is free to be reused once the send returns
+		byte[] payload = new byte[message.remaining()];
+		message.duplicate().get(payload);
+		return spoolIfNeeded(workable, OutboundSpool.BINARY, payload);
+	}
+
+	private boolean spoolIfNeeded(boolean workable, byte type, byte[] payload) {
+		if (spool.spoolIfNeeded(workable, type, payload)) {
+			if (workable) {
+				spool.drain();
 			}
+			return true;
 		}
-		logger.info("keep alive worker exited");
+		return false;
 	}
 
-	private void validateWorkable() {
-		if (session == null || !session.isOpen()) {
+	private void validateWorkable(Session current) {
+		if (current == null) {
 			throw new IllegalStateException("endpoint session has not yet been initialized or it was already closed");
 		}
 	}
 
-	private void safeSleep(long millisToSleep) {
-		long started = System.currentTimeMillis();
-		while (System.currentTimeMillis() - started < millisToSleep) {
-			try {
-				Thread.sleep(millisToSleep);
-			} catch (InterruptedException ie) {
-				logger.warn("interrupted while safe-sleeping", ie);
+	/**
+	 * @return session of the current connection snapshot, if OPEN and the session is still open; NULL otherwise
+	 */
+	private Session openSession() {
+		ConnectionSnapshot current = connection.get();
+		return current.state == OctaneWSConnectionState.OPEN && current.session.isOpen() ? current.session : null;
+	}
+
+	/**
+	 * atomically replaces the expected snapshot with the new one, notifying the state listeners if the state has changed
+	 *
+	 * @return false if the snapshot has been replaced concurrently (nothing is changed then)
+	 */
+	private boolean transition(ConnectionSnapshot expected, OctaneWSConnectionState to, Session session) {
+		if (expected.state == to && expected.session == session) {
+			return true;
+		}
+		if (!connection.compareAndSet(expected, new ConnectionSnapshot(to, session))) {
+			return false;
+		}
+		if (expected.state != to) {
+			logger.debug("client of " + context + " moved from " + expected.state + " to " + to);
+			for (OctaneWSConnectionStateListener listener : stateListeners) {
+				try {
+					listener.onStateChange(this, expected.state, to);
+				} catch (Exception e) {
+					logger.error("state listener failed upon " + expected.state + " -> " + to + " transition of client of " + context, e);
+				}
+			}
+			if (to == OctaneWSConnectionState.RECONNECTING) {
+				//  even the first attempt is jittered, so that the clients dropped together (e.g. by the server restart) do not reconnect in a lockstep
+				scheduleReconnect(reconnectBackoff.onDisconnected());
 			}
 		}
+		return true;
+	}
+
+	private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+		try {
+			return getClass().getMethod(methodName, parameterTypes).getDeclaringClass() != OctaneWSEndpointClient.class;
+		} catch (NoSuchMethodException nsme) {
+			return false;
+		}
 	}
 
-	private static final class WSEndpointClientKeepAliveThreadFactory implements ThreadFactory {
+	private static final class ConnectionSnapshot {
+		private static final ConnectionSnapshot INITIAL = new ConnectionSnapshot(OctaneWSConnectionState.CLOSED, null);
+		private final OctaneWSConnectionState state;
+		private final Session session;
+
+		private ConnectionSnapshot(OctaneWSConnectionState state, Session session) {
+			this.state = state;
+			this.session = session;
+		}
+	}
+
+	private final class PingCallback implements WriteCallback {
+
+		@Override
+		public void writeSuccess() {
+			context.metrics.onPingSent();
+		}
 
 		@Override
-		public Thread newThread(Runnable r) {
-			Thread result = new Thread(r);
-			result.setDaemon(true);
-			result.setName("WS endpoint client life keeper: " + result.getId());
-			return result;
+		public void writeFailed(Throwable throwable) {
+			context.metrics.onPingFailed();
+			logger.error("failed to PING endpoint of " + context + ", will attempt to reconnect if relevant", throwable);
 		}
 	}
 }
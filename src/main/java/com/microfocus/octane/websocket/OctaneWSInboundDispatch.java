@@ -0,0 +1,172 @@
+package com.microfocus.octane.websocket;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Inbound dispatch stage of the endpoint client: moves the messages callbacks off the transport's I/O threads onto the provided executor
+ * - messages are queued into bounded lanes, each lane is drained by at most one executor's task at a time, thus preserving the order within the lane
+ * - by default there is a single lane, so the whole client's messages order is preserved
+ * - with many lanes, the lane of each message is chosen by its ordering key: messages of the same key keep their order, different keys are processed in parallel
+ * - when the lane is full, the overflow policy applies; BLOCK blocks the I/O thread, effectively back-pressuring the endpoint
+ * - binary message is handed off as is when it spans the whole array the transport delivered it in (an array of its own per message); only a slice of a larger array is copied
+ */
+public final class OctaneWSInboundDispatch {
+	public final Executor executor;
+	public final int queueCapacity;
+	public final OctaneWSOverflowPolicy overflowPolicy;
+	public final int lanes;
+	public final Function<String, Object> stringOrderingKeyExtractor;
+	public final Function<ByteBuffer, Object> binaryOrderingKeyExtractor;
+
+	private OctaneWSInboundDispatch(
+			Executor executor,
+			int queueCapacity,
+			OctaneWSOverflowPolicy overflowPolicy,
+			int lanes,
+			Function<String, Object> stringOrderingKeyExtractor,
+			Function<ByteBuffer, Object> binaryOrderingKeyExtractor
+	) {
+		this.executor = executor;
+		this.queueCapacity = queueCapacity;
+		this.overflowPolicy = overflowPolicy;
+		this.lanes = lanes;
+		this.stringOrderingKeyExtractor = stringOrderingKeyExtractor;
+		this.binaryOrderingKeyExtractor = binaryOrderingKeyExtractor;
+	}
+
+	public static OctaneWSInboundDispatchBuilder builder() {
+		return new OctaneWSInboundDispatchBuilder();
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSInboundDispatch { " +
+				"queueCapacity: " + queueCapacity +
+				", overflowPolicy: " + overflowPolicy +
+				", lanes: " + lanes + " }";
+	}
+
+	public static final class OctaneWSInboundDispatchBuilder {
+		private boolean built = false;
+		private Executor executor;
+		private int queueCapacity = 1024;
+		private OctaneWSOverflowPolicy overflowPolicy = OctaneWSOverflowPolicy.BLOCK;
+		private int lanes = 1;
+		private Function<String, Object> stringOrderingKeyExtractor;
+		private Function<ByteBuffer, Object> binaryOrderingKeyExtractor;
+
+		private OctaneWSInboundDispatchBuilder() {
+		}
+
+		/**
+		 * @param executor executor to run the messages callbacks on, MUST be provided; its lifecycle is owned by the hosting application
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setExecutor(Executor executor) {
+			validateBuildState();
+
+			if (executor == null) {
+				throw new IllegalArgumentException("executor MUST NOT be NULL");
+			}
+
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * @param queueCapacity capacity (messages) of each lane, MUST be positive; defaults to 1024
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setQueueCapacity(int queueCapacity) {
+			validateBuildState();
+
+			if (queueCapacity <= 0) {
+				throw new IllegalArgumentException("queue capacity MUST be positive");
+			}
+
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * @param overflowPolicy policy applied when the lane is full; defaults to BLOCK
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setOverflowPolicy(OctaneWSOverflowPolicy overflowPolicy) {
+			validateBuildState();
+
+			if (overflowPolicy == null) {
+				throw new IllegalArgumentException("overflow policy, if/when set, MUST NOT be NULL");
+			}
+
+			this.overflowPolicy = overflowPolicy;
+			return this;
+		}
+
+		/**
+		 * @param lanes number of the lanes processed in parallel, MUST be positive; more than 1 requires ordering key extractor; defaults to 1
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setLanes(int lanes) {
+			validateBuildState();
+
+			if (lanes <= 0) {
+				throw new IllegalArgumentException("lanes MUST be positive");
+			}
+
+			this.lanes = lanes;
+			return this;
+		}
+
+		/**
+		 * @param stringOrderingKeyExtractor extracts ordering key of the string message, MAY return NULL (first lane is used then)
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setStringOrderingKeyExtractor(Function<String, Object> stringOrderingKeyExtractor) {
+			validateBuildState();
+
+			this.stringOrderingKeyExtractor = stringOrderingKeyExtractor;
+			return this;
+		}
+
+		/**
+		 * @param binaryOrderingKeyExtractor extracts ordering key of the (read-only view of the) binary message, MAY return NULL (first lane is used then)
+		 * @return the builder
+		 */
+		public OctaneWSInboundDispatchBuilder setBinaryOrderingKeyExtractor(Function<ByteBuffer, Object> binaryOrderingKeyExtractor) {
+			validateBuildState();
+
+			this.binaryOrderingKeyExtractor = binaryOrderingKeyExtractor;
+			return this;
+		}
+
+		public OctaneWSInboundDispatch build() {
+			validateBuildState();
+			if (executor == null) {
+				throw new IllegalStateException("executor MUST NOT be NULL");
+			}
+			if (lanes > 1 && stringOrderingKeyExtractor == null && binaryOrderingKeyExtractor == null) {
+				throw new IllegalStateException("more than 1 lane requires string and/or binary ordering key extractor");
+			}
+
+			OctaneWSInboundDispatch result = new OctaneWSInboundDispatch(
+					executor,
+					queueCapacity,
+					overflowPolicy,
+					lanes,
+					stringOrderingKeyExtractor,
+					binaryOrderingKeyExtractor
+			);
+			built = true;
+			return result;
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Metrics SPI of the endpoint clients; set per context (see OctaneWSClientContextBuilder.setMetrics)
+ * - all the methods are no-op by default, implementations override the relevant ones only
+ * - methods are called on the hot path (I/O and senders threads): implementations MUST be thread safe, non blocking and SHOULD NOT allocate
+ * - sizes of string messages are reported in chars, sizes of binary messages in bytes
+ * - each onConnected is paired with at most one onClosed; sessions closed without having been reported as connected (eg opened after the client's stop) are not reported as closed either
+ */
+public interface OctaneWSMetrics {
+	OctaneWSMetrics NOOP = new OctaneWSMetrics() {
+	};
+
+	default void onConnected() {
+	}
+
+	default void onConnectFailed() {
+	}
+
+	default void onClosed(int statusCode) {
+	}
+
+	default void onReconnectAttempt() {
+	}
+
+	default void onLogin(long durationNanos, boolean success) {
+	}
+
+	default void onStringMessageSent(int chars, long durationNanos) {
+	}
+
+	default void onBinaryMessageSent(int bytes, long durationNanos) {
+	}
+
+	default void onSendFailed() {
+	}
+
+	default void onStringMessageReceived(int chars) {
+	}
+
+	default void onBinaryMessageReceived(int bytes) {
+	}
+
+	default void onError() {
+	}
+
+	default void onInboundDropped() {
+	}
+
+	default void onSpoolDropped() {
+	}
+
+	default void onPingSent() {
+	}
+
+	default void onPingFailed() {
+	}
+
+	default void onPongReceived(long roundTripNanos) {
+	}
+
+	default void onDeadSessionDetected() {
+	}
+}
@@ -0,0 +1,168 @@
+package com.microfocus.octane.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Endpoint client multiplexing many logical subscriptions over its single session
+ * - one multiplexer is oriented to serve all the consumers of the same endpoint with the same credentials: one connection, one login, one keep alive
+ * - inbound messages are dispatched to the subscribers of the routing key extracted from the message
+ * - messages without routing key or without subscribers of their key are dispatched to the default subscriber, if any, otherwise dropped
+ * - started, used for sending and stopped as any other endpoint client (see OctaneWSClientService.initClient)
+ * - to share one session among the consumers not knowing of each other, acquire the multiplexer from the service's registry (see OctaneWSClientService.multiplexer),
+ * then stopping it releases the acquisition, and only the last release stops it actually
+ */
+public final class OctaneWSMultiplexer extends OctaneWSEndpointClient {
+	private static final Logger logger = LoggerFactory.getLogger(OctaneWSMultiplexer.class);
+	private final Function<String, String> stringRoutingKeyExtractor;
+	private final Function<ByteBuffer, String> binaryRoutingKeyExtractor;
+	private final ConcurrentMap<String, List<OctaneWSSubscriber>> subscribers = new ConcurrentHashMap<>();
+	private volatile OctaneWSSubscriber defaultSubscriber;
+
+	/**
+	 * @param context                   client context; partial messages delivery is not supported
+	 * @param stringRoutingKeyExtractor extracts routing key from the string message, MAY return NULL
+	 */
+	public OctaneWSMultiplexer(OctaneWSClientContext context, Function<String, String> stringRoutingKeyExtractor) {
+		this(context, stringRoutingKeyExtractor, null);
+	}
+
+	/**
+	 * @param context                   client context; partial messages delivery is not supported
+	 * @param stringRoutingKeyExtractor extracts routing key from the string message, MAY return NULL
+	 * @param binaryRoutingKeyExtractor extracts routing key from the (read-only view of the) binary message, MAY return NULL; when NULL, binary messages are dispatched to the default subscriber only
+	 */
+	public OctaneWSMultiplexer(OctaneWSClientContext context, Function<String, String> stringRoutingKeyExtractor, Function<ByteBuffer, String> binaryRoutingKeyExtractor) {
+		super(context);
+		if (context.partialMessages) {
+			throw new IllegalArgumentException("partial messages delivery is not supported by multiplexer");
+		}
+		if (stringRoutingKeyExtractor == null) {
+			throw new IllegalArgumentException("string routing key extractor MUST NOT be NULL");
+		}
+		this.stringRoutingKeyExtractor = stringRoutingKeyExtractor;
+		this.binaryRoutingKeyExtractor = binaryRoutingKeyExtractor;
+	}
+
+	/**
+	 * registers subscriber for the messages of the routing key; the same subscriber MAY be registered for many keys
+	 *
+	 * @param routingKey routing key
+	 * @param subscriber subscriber
+	 * @return subscription handle, to cancel the subscription with
+	 */
+	public OctaneWSSubscription subscribe(String routingKey, OctaneWSSubscriber subscriber) {
+		if (routingKey == null) {
+			throw new IllegalArgumentException("routing key MUST NOT be NULL");
+		}
+		if (subscriber == null) {
+			throw new IllegalArgumentException("subscriber MUST NOT be NULL");
+		}
+
+		//  both, registration and cancellation, are performed atomically per key, so that the emptied keys are removed safely
+		subscribers.compute(routingKey, (key, keySubscribers) -> {
+			List<OctaneWSSubscriber> result = keySubscribers == null ? new CopyOnWriteArrayList<>() : keySubscribers;
+			result.add(subscriber);
+			return result;
+		});
+		return () -> subscribers.computeIfPresent(routingKey, (key, keySubscribers) -> {
+			keySubscribers.remove(subscriber);
+			return keySubscribers.isEmpty() ? null : keySubscribers;
+		});
+	}
+
+	/**
+	 * @param defaultSubscriber subscriber of the messages not routed to any other subscriber; NULL to drop such messages
+	 */
+	public void setDefaultSubscriber(OctaneWSSubscriber defaultSubscriber) {
+		this.defaultSubscriber = defaultSubscriber;
+	}
+
+	/**
+	 * @return number of the routing keys having at least one subscriber
+	 */
+	public int getRoutingKeysCount() {
+		return subscribers.size();
+	}
+
+	@Override
+	public void onStringMessage(String message) {
+		List<OctaneWSSubscriber> keySubscribers = resolveSubscribers(extractRoutingKey(stringRoutingKeyExtractor, message));
+		if (keySubscribers != null) {
+			for (OctaneWSSubscriber subscriber : keySubscribers) {
+				try {
+					subscriber.onStringMessage(message);
+				} catch (Exception e) {
+					logger.error("subscriber failed to process string message of " + getContext(), e);
+				}
+			}
+		} else {
+			OctaneWSSubscriber fallback = defaultSubscriber;
+			if (fallback != null) {
+				try {
+					fallback.onStringMessage(message);
+				} catch (Exception e) {
+					logger.error("default subscriber failed to process string message of " + getContext(), e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onBinaryMessage(ByteBuffer message) {
+		List<OctaneWSSubscriber> keySubscribers = binaryRoutingKeyExtractor == null
+				? null
+				: resolveSubscribers(extractRoutingKey(binaryRoutingKeyExtractor, message.duplicate()));
+		if (keySubscribers != null) {
+			for (OctaneWSSubscriber subscriber : keySubscribers) {
+				try {
+					subscriber.onBinaryMessage(message.duplicate());
+				} catch (Exception e) {
+					logger.error("subscriber failed to process binary message of " + getContext(), e);
+				}
+			}
+		} else {
+			OctaneWSSubscriber fallback = defaultSubscriber;
+			if (fallback != null) {
+				try {
+					fallback.onBinaryMessage(message.duplicate());
+				} catch (Exception e) {
+					logger.error("default subscriber failed to process binary message of " + getContext(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * stops the multiplexer; if acquired from the service's registry, releases the acquisition and stops only upon the last one
+	 */
+	@Override
+	public void stop() {
+		OctaneWSClientService service = getBoundService();
+		if (service != null && !service.releaseMultiplexer(this)) {
+			logger.info("multiplexer of " + getContext() + " released, still in use by other acquirers");
+			return;
+		}
+		super.stop();
+	}
+
+	private List<OctaneWSSubscriber> resolveSubscribers(String routingKey) {
+		return routingKey == null ? null : subscribers.get(routingKey);
+	}
+
+	private <T> String extractRoutingKey(Function<T, String> extractor, T message) {
+		try {
+			return extractor.apply(message);
+		} catch (Exception e) {
+			logger.error("failed to extract routing key from message of " + getContext() + ", dispatching it as not routed", e);
+			return null;
+		}
+	}
+}
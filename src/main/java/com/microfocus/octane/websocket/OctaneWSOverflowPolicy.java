@@ -0,0 +1,21 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Defines the behavior of a bounded queue when a new item arrives while the queue is full
+ */
+public enum OctaneWSOverflowPolicy {
+	/**
+	 * the producer is blocked until there is a room in the queue
+	 */
+	BLOCK,
+
+	/**
+	 * the oldest queued item is dropped (and its promise, if any, failed) to make a room for the new one
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * the new item is rejected right away (its promise, if any, failed), the producer is never blocked
+	 */
+	FAIL_FAST
+}
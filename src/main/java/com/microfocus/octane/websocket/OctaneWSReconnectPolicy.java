@@ -0,0 +1,156 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Reconnect policy of the endpoint client, applied while the session is down
+ * - the first attempt after the session loss is delayed by a fully jittered (uniformly random between 0 and) initial delay
+ * - delays grow exponentially from the initial delay up to the max delay, each delay is fully jittered (uniformly random between 0 and the computed delay)
+ * - after the configured number of consecutive failures the circuit breaker opens, no attempts are performed for the open duration
+ * - once the open duration elapses, a single probing attempt is performed; its failure re-opens the circuit breaker, its success resets the policy
+ */
+public final class OctaneWSReconnectPolicy {
+	public static final OctaneWSReconnectPolicy DEFAULT = builder().build();
+
+	public final long initialDelay;
+	public final long maxDelay;
+	public final double multiplier;
+	public final int circuitBreakerThreshold;
+	public final long circuitBreakerOpenDuration;
+
+	private OctaneWSReconnectPolicy(
+			long initialDelay,
+			long maxDelay,
+			double multiplier,
+			int circuitBreakerThreshold,
+			long circuitBreakerOpenDuration
+	) {
+		this.initialDelay = initialDelay;
+		this.maxDelay = maxDelay;
+		this.multiplier = multiplier;
+		this.circuitBreakerThreshold = circuitBreakerThreshold;
+		this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+	}
+
+	public static OctaneWSReconnectPolicyBuilder builder() {
+		return new OctaneWSReconnectPolicyBuilder();
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSReconnectPolicy { " +
+				"initialDelay: " + initialDelay +
+				", maxDelay: " + maxDelay +
+				", multiplier: " + multiplier +
+				", circuitBreakerThreshold: " + circuitBreakerThreshold +
+				", circuitBreakerOpenDuration: " + circuitBreakerOpenDuration + " }";
+	}
+
+	public static final class OctaneWSReconnectPolicyBuilder {
+		private boolean built = false;
+		private long initialDelay = 1000;
+		private long maxDelay = 60000;
+		private double multiplier = 2;
+		private int circuitBreakerThreshold = 10;
+		private long circuitBreakerOpenDuration = 300000;
+
+		private OctaneWSReconnectPolicyBuilder() {
+		}
+
+		/**
+		 * @param initialDelay delay (millis) before the first reconnect attempt, MUST be positive; defaults to 1000
+		 * @return the builder
+		 */
+		public OctaneWSReconnectPolicyBuilder setInitialDelay(long initialDelay) {
+			validateBuildState();
+
+			if (initialDelay <= 0) {
+				throw new IllegalArgumentException("initial delay MUST be positive");
+			}
+
+			this.initialDelay = initialDelay;
+			return this;
+		}
+
+		/**
+		 * @param maxDelay max delay (millis) between the reconnect attempts, MUST be positive; defaults to 60000
+		 * @return the builder
+		 */
+		public OctaneWSReconnectPolicyBuilder setMaxDelay(long maxDelay) {
+			validateBuildState();
+
+			if (maxDelay <= 0) {
+				throw new IllegalArgumentException("max delay MUST be positive");
+			}
+
+			this.maxDelay = maxDelay;
+			return this;
+		}
+
+		/**
+		 * @param multiplier factor the delay grows by upon each consecutive failure, MUST NOT be less than 1; defaults to 2
+		 * @return the builder
+		 */
+		public OctaneWSReconnectPolicyBuilder setMultiplier(double multiplier) {
+			validateBuildState();
+
+			if (multiplier < 1 || Double.isNaN(multiplier) || Double.isInfinite(multiplier)) {
+				throw new IllegalArgumentException("multiplier MUST be a finite number, not less than 1");
+			}
+
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		/**
+		 * @param circuitBreakerThreshold number of consecutive failures opening the circuit breaker, 0 disables the circuit breaker; defaults to 10
+		 * @return the builder
+		 */
+		public OctaneWSReconnectPolicyBuilder setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+			validateBuildState();
+
+			if (circuitBreakerThreshold < 0) {
+				throw new IllegalArgumentException("circuit breaker threshold MUST NOT be negative");
+			}
+
+			this.circuitBreakerThreshold = circuitBreakerThreshold;
+			return this;
+		}
+
+		/**
+		 * @param circuitBreakerOpenDuration duration (millis) the circuit breaker stays open, MUST be positive; defaults to 300000
+		 * @return the builder
+		 */
+		public OctaneWSReconnectPolicyBuilder setCircuitBreakerOpenDuration(long circuitBreakerOpenDuration) {
+			validateBuildState();
+
+			if (circuitBreakerOpenDuration <= 0) {
+				throw new IllegalArgumentException("circuit breaker open duration MUST be positive");
+			}
+
+			this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+			return this;
+		}
+
+		public OctaneWSReconnectPolicy build() {
+			validateBuildState();
+			if (maxDelay < initialDelay) {
+				throw new IllegalStateException("max delay MUST NOT be less than initial delay");
+			}
+
+			OctaneWSReconnectPolicy result = new OctaneWSReconnectPolicy(
+					initialDelay,
+					maxDelay,
+					multiplier,
+					circuitBreakerThreshold,
+					circuitBreakerOpenDuration
+			);
+			built = true;
+			return result;
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.microfocus.octane.websocket;
+
+import java.nio.file.Path;
+
+/**
+ * Outbound spool of the endpoint client: holds the messages sent while the session is down and drains them, in order, once connected
+ * - messages are held in a ring buffer, in memory or, when the file is set, in a memory-mapped file; the latter survives the hosting process restart
+ * - once anything is spooled, all the further messages are spooled as well until the spool is drained, preserving the order
+ * - delivery of the spooled messages is at least once: a message is removed from the spool only after it has been written
+ * - the file, if set, MUST NOT be shared by more than one client
+ */
+public final class OctaneWSSpool {
+	public final int maxMessages;
+	public final int maxBytes;
+	public final OctaneWSOverflowPolicy overflowPolicy;
+	public final Path file;
+
+	private OctaneWSSpool(
+			int maxMessages,
+			int maxBytes,
+			OctaneWSOverflowPolicy overflowPolicy,
+			Path file
+	) {
+		this.maxMessages = maxMessages;
+		this.maxBytes = maxBytes;
+		this.overflowPolicy = overflowPolicy;
+		this.file = file;
+	}
+
+	public static OctaneWSSpoolBuilder builder() {
+		return new OctaneWSSpoolBuilder();
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSSpool { " +
+				"maxMessages: " + maxMessages +
+				", maxBytes: " + maxBytes +
+				", overflowPolicy: " + overflowPolicy +
+				", file: " + file + " }";
+	}
+
+	public static final class OctaneWSSpoolBuilder {
+		private boolean built = false;
+		private int maxMessages = 10000;
+		private int maxBytes = 16 * 1024 * 1024;
+		private OctaneWSOverflowPolicy overflowPolicy = OctaneWSOverflowPolicy.DROP_OLDEST;
+		private Path file;
+
+		private OctaneWSSpoolBuilder() {
+		}
+
+		/**
+		 * @param maxMessages max number of the spooled messages, MUST be positive; defaults to 10000
+		 * @return the builder
+		 */
+		public OctaneWSSpoolBuilder setMaxMessages(int maxMessages) {
+			validateBuildState();
+
+			if (maxMessages <= 0) {
+				throw new IllegalArgumentException("max messages MUST be positive");
+			}
+
+			this.maxMessages = maxMessages;
+			return this;
+		}
+
+		/**
+		 * @param maxBytes size (bytes) of the spool's ring buffer, including 5 bytes of overhead per message, MUST be positive; defaults to 16MB
+		 * @return the builder
+		 */
+		public OctaneWSSpoolBuilder setMaxBytes(int maxBytes) {
+			validateBuildState();
+
+			if (maxBytes <= 0) {
+				throw new IllegalArgumentException("max bytes MUST be positive");
+			}
+
+			this.maxBytes = maxBytes;
+			return this;
+		}
+
+		/**
+		 * @param overflowPolicy policy applied when the spool is full, DROP_OLDEST or FAIL_FAST (BLOCK is not supported); defaults to DROP_OLDEST
+		 * @return the builder
+		 */
+		public OctaneWSSpoolBuilder setOverflowPolicy(OctaneWSOverflowPolicy overflowPolicy) {
+			validateBuildState();
+
+			if (overflowPolicy == null) {
+				throw new IllegalArgumentException("overflow policy, if/when set, MUST NOT be NULL");
+			}
+			if (overflowPolicy == OctaneWSOverflowPolicy.BLOCK) {
+				throw new IllegalArgumentException("BLOCK overflow policy is not supported by spool");
+			}
+
+			this.overflowPolicy = overflowPolicy;
+			return this;
+		}
+
+		/**
+		 * @param file file to back the spool with (memory-mapped), created if not exists; by default the spool is held in memory only
+		 * @return the builder
+		 */
+		public OctaneWSSpoolBuilder setFile(Path file) {
+			validateBuildState();
+
+			if (file == null) {
+				throw new IllegalArgumentException("file, if/when set, MUST NOT be NULL");
+			}
+
+			this.file = file;
+			return this;
+		}
+
+		public OctaneWSSpool build() {
+			validateBuildState();
+
+			OctaneWSSpool result = new OctaneWSSpool(
+					maxMessages,
+					maxBytes,
+					overflowPolicy,
+					file
+			);
+			built = true;
+			return result;
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
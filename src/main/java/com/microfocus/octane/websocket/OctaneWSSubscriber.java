@@ -0,0 +1,21 @@
+package com.microfocus.octane.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Logical listener of the messages dispatched by OctaneWSMultiplexer
+ * - called on the thread delivering the message of the underlying session, thus SHOULD NOT block
+ */
+public interface OctaneWSSubscriber {
+
+	/**
+	 * @param message string message routed to the subscriber
+	 */
+	void onStringMessage(String message);
+
+	/**
+	 * @param message read-only view of the binary message routed to the subscriber, valid only for the duration of the call
+	 */
+	default void onBinaryMessage(ByteBuffer message) {
+	}
+}
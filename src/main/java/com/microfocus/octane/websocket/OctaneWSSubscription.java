@@ -0,0 +1,12 @@
+package com.microfocus.octane.websocket;
+
+/**
+ * Handle of the subscriber registered with OctaneWSMultiplexer
+ */
+public interface OctaneWSSubscription {
+
+	/**
+	 * unregisters the subscriber; no further messages are dispatched to it, the underlying session is not affected
+	 */
+	void cancel();
+}
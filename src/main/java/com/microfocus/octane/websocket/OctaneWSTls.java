@@ -0,0 +1,399 @@
+package com.microfocus.octane.websocket;
+
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TLS configuration of wss:// connections (and of the logins to the same Octane), set per context
+ * - contexts sharing the same instance share a single transport, thus its TLS sessions cache: reconnects after a network blip resume the cached sessions (abbreviated handshakes) instead of the full handshakes
+ * - contexts without TLS configuration use the service's default transport, with the JVM default trust material
+ * - either a ready SSLContext or the key / trust stores may be configured, not both; session cache settings do not apply to a ready SSLContext (configure its client session context directly)
+ * - application protocols (ALPN) are offered only when supported by the runtime (JDK 9+ / 8u252+)
+ */
+public final class OctaneWSTls {
+	private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+	final long id = ID_SEQUENCE.incrementAndGet();
+	public final SSLContext sslContext;
+	public final String keyStorePath;
+	final String keyStorePassword;
+	public final String keyStoreType;
+	public final String trustStorePath;
+	final String trustStorePassword;
+	public final String trustStoreType;
+	public final boolean trustAll;
+	public final boolean hostnameVerification;
+	public final List<String> includeProtocols;
+	public final List<String> includeCipherSuites;
+	public final List<String> applicationProtocols;
+	public final String provider;
+	public final boolean sessionCachingEnabled;
+	public final int sessionCacheSize;
+	public final int sessionTimeout;
+
+	private OctaneWSTls(
+			SSLContext sslContext,
+			String keyStorePath,
+			String keyStorePassword,
+			String keyStoreType,
+			String trustStorePath,
+			String trustStorePassword,
+			String trustStoreType,
+			boolean trustAll,
+			boolean hostnameVerification,
+			List<String> includeProtocols,
+			List<String> includeCipherSuites,
+			List<String> applicationProtocols,
+			String provider,
+			boolean sessionCachingEnabled,
+			int sessionCacheSize,
+			int sessionTimeout
+	) {
+		this.sslContext = sslContext;
+		this.keyStorePath = keyStorePath;
+		this.keyStorePassword = keyStorePassword;
+		this.keyStoreType = keyStoreType;
+		this.trustStorePath = trustStorePath;
+		this.trustStorePassword = trustStorePassword;
+		this.trustStoreType = trustStoreType;
+		this.trustAll = trustAll;
+		this.hostnameVerification = hostnameVerification;
+		this.includeProtocols = includeProtocols;
+		this.includeCipherSuites = includeCipherSuites;
+		this.applicationProtocols = applicationProtocols;
+		this.provider = provider;
+		this.sessionCachingEnabled = sessionCachingEnabled;
+		this.sessionCacheSize = sessionCacheSize;
+		this.sessionTimeout = sessionTimeout;
+	}
+
+	public static OctaneWSTlsBuilder builder() {
+		return new OctaneWSTlsBuilder();
+	}
+
+	/**
+	 * @return new (not started) client SSL context factory as per this configuration
+	 */
+	SslContextFactory.Client newSslContextFactory() {
+		SslContextFactory.Client result = applicationProtocols.isEmpty()
+				? new SslContextFactory.Client()
+				: new ApplicationProtocolsSslContextFactory(applicationProtocols.toArray(new String[0]));
+		if (sslContext != null) {
+			result.setSslContext(sslContext);
+		}
+		if (keyStorePath != null) {
+			result.setKeyStorePath(keyStorePath);
+			result.setKeyStorePassword(keyStorePassword);
+			if (keyStoreType != null) {
+				result.setKeyStoreType(keyStoreType);
+			}
+		}
+		if (trustStorePath != null) {
+			result.setTrustStorePath(trustStorePath);
+			result.setTrustStorePassword(trustStorePassword);
+			if (trustStoreType != null) {
+				result.setTrustStoreType(trustStoreType);
+			}
+		}
+		result.setTrustAll(trustAll);
+		result.setEndpointIdentificationAlgorithm(hostnameVerification ? "HTTPS" : null);
+		if (!includeProtocols.isEmpty()) {
+			result.setIncludeProtocols(includeProtocols.toArray(new String[0]));
+		}
+		if (!includeCipherSuites.isEmpty()) {
+			result.setIncludeCipherSuites(includeCipherSuites.toArray(new String[0]));
+		}
+		if (provider != null) {
+			result.setProvider(provider);
+		}
+		result.setSessionCachingEnabled(sessionCachingEnabled);
+		if (sessionCacheSize > 0) {
+			result.setSslSessionCacheSize(sessionCacheSize);
+		}
+		if (sessionTimeout > 0) {
+			result.setSslSessionTimeout(sessionTimeout);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "OctaneWSTls { " +
+				"sslContext: " + (sslContext != null ? sslContext.getProtocol() : null) +
+				", keyStorePath: " + keyStorePath +
+				", trustStorePath: " + trustStorePath +
+				", trustAll: " + trustAll +
+				", hostnameVerification: " + hostnameVerification +
+				", includeProtocols: " + includeProtocols +
+				", includeCipherSuites: " + includeCipherSuites +
+				", applicationProtocols: " + applicationProtocols +
+				", provider: " + provider +
+				", sessionCachingEnabled: " + sessionCachingEnabled +
+				", sessionCacheSize: " + sessionCacheSize +
+				", sessionTimeout: " + sessionTimeout + " }";
+	}
+
+	private static final class ApplicationProtocolsSslContextFactory extends SslContextFactory.Client {
+		private final String[] applicationProtocols;
+
+		private ApplicationProtocolsSslContextFactory(String[] applicationProtocols) {
+			this.applicationProtocols = applicationProtocols;
+		}
+
+		@Override
+		public void customize(SSLEngine sslEngine) {
+			super.customize(sslEngine);
+			SSLParameters sslParameters = sslEngine.getSSLParameters();
+			try {
+				//  resolved reflectively, since the API is missing on the older JDK 8 runtimes
+				SSLParameters.class.getMethod("setApplicationProtocols", String[].class).invoke(sslParameters, (Object) applicationProtocols);
+				sslEngine.setSSLParameters(sslParameters);
+			} catch (ReflectiveOperationException roe) {
+				//  ALPN is not supported by the runtime, the handshake proceeds without it
+			}
+		}
+	}
+
+	public static final class OctaneWSTlsBuilder {
+		private boolean built = false;
+		private SSLContext sslContext;
+		private String keyStorePath;
+		private String keyStorePassword;
+		private String keyStoreType;
+		private String trustStorePath;
+		private String trustStorePassword;
+		private String trustStoreType;
+		private boolean trustAll = false;
+		private boolean hostnameVerification = true;
+		private List<String> includeProtocols = Collections.emptyList();
+		private List<String> includeCipherSuites = Collections.emptyList();
+		private List<String> applicationProtocols = Collections.emptyList();
+		private String provider;
+		private boolean sessionCachingEnabled = true;
+		private int sessionCacheSize = 0;
+		private int sessionTimeout = 0;
+
+		private OctaneWSTlsBuilder() {
+		}
+
+		/**
+		 * @param sslContext ready SSL context to be used as is, if/when set, MUST NOT be NULL; MAY NOT be combined with key / trust stores, trust all or provider
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setSslContext(SSLContext sslContext) {
+			validateBuildState();
+
+			if (sslContext == null) {
+				throw new IllegalArgumentException("SSL context, if/when set, MUST NOT be NULL");
+			}
+
+			this.sslContext = sslContext;
+			return this;
+		}
+
+		/**
+		 * @param keyStorePath     path (or URL) of the key store holding the client certificate, MUST NOT be NULL nor EMPTY
+		 * @param keyStorePassword password of the key store, MAY be NULL
+		 * @param keyStoreType     type of the key store, NULL for the JVM default
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setKeyStore(String keyStorePath, String keyStorePassword, String keyStoreType) {
+			validateBuildState();
+
+			if (keyStorePath == null || keyStorePath.isEmpty()) {
+				throw new IllegalArgumentException("key store path MUST NOT be NULL nor EMPTY");
+			}
+
+			this.keyStorePath = keyStorePath;
+			this.keyStorePassword = keyStorePassword;
+			this.keyStoreType = keyStoreType;
+			return this;
+		}
+
+		/**
+		 * @param trustStorePath     path (or URL) of the trust store, MUST NOT be NULL nor EMPTY
+		 * @param trustStorePassword password of the trust store, MAY be NULL
+		 * @param trustStoreType     type of the trust store, NULL for the JVM default
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setTrustStore(String trustStorePath, String trustStorePassword, String trustStoreType) {
+			validateBuildState();
+
+			if (trustStorePath == null || trustStorePath.isEmpty()) {
+				throw new IllegalArgumentException("trust store path MUST NOT be NULL nor EMPTY");
+			}
+
+			this.trustStorePath = trustStorePath;
+			this.trustStorePassword = trustStorePassword;
+			this.trustStoreType = trustStoreType;
+			return this;
+		}
+
+		/**
+		 * @param trustAll whether any server certificate is trusted; MUST NOT be used in production; defaults to false
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setTrustAll(boolean trustAll) {
+			validateBuildState();
+
+			this.trustAll = trustAll;
+			return this;
+		}
+
+		/**
+		 * @param hostnameVerification whether the server certificate is verified to match the host name; defaults to true
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setHostnameVerification(boolean hostnameVerification) {
+			validateBuildState();
+
+			this.hostnameVerification = hostnameVerification;
+			return this;
+		}
+
+		/**
+		 * @param includeProtocols TLS protocols allowed, in order of preference (eg TLSv1.3, TLSv1.2), MUST NOT be NULL nor EMPTY
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setIncludeProtocols(String... includeProtocols) {
+			validateBuildState();
+
+			this.includeProtocols = validateNames(includeProtocols, "include protocols");
+			return this;
+		}
+
+		/**
+		 * @param includeCipherSuites cipher suites (or regular expressions of) allowed, in order of preference, MUST NOT be NULL nor EMPTY
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setIncludeCipherSuites(String... includeCipherSuites) {
+			validateBuildState();
+
+			this.includeCipherSuites = validateNames(includeCipherSuites, "include cipher suites");
+			return this;
+		}
+
+		/**
+		 * @param applicationProtocols application protocols offered via ALPN, in order of preference (eg http/1.1), MUST NOT be NULL nor EMPTY
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setApplicationProtocols(String... applicationProtocols) {
+			validateBuildState();
+
+			this.applicationProtocols = validateNames(applicationProtocols, "application protocols");
+			return this;
+		}
+
+		/**
+		 * @param provider name of an alternative JSSE provider (must be registered in the JVM), if/when set, MUST NOT be NULL nor EMPTY
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setProvider(String provider) {
+			validateBuildState();
+
+			if (provider == null || provider.isEmpty()) {
+				throw new IllegalArgumentException("provider, if/when set, MUST NOT be NULL nor EMPTY");
+			}
+
+			this.provider = provider;
+			return this;
+		}
+
+		/**
+		 * @param sessionCachingEnabled whether TLS sessions are cached and resumed upon reconnects; defaults to true
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setSessionCachingEnabled(boolean sessionCachingEnabled) {
+			validateBuildState();
+
+			this.sessionCachingEnabled = sessionCachingEnabled;
+			return this;
+		}
+
+		/**
+		 * @param sessionCacheSize max number of cached TLS sessions, 0 for the JSSE default; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setSessionCacheSize(int sessionCacheSize) {
+			validateBuildState();
+
+			if (sessionCacheSize < 0) {
+				throw new IllegalArgumentException("session cache size MUST NOT be negative");
+			}
+
+			this.sessionCacheSize = sessionCacheSize;
+			return this;
+		}
+
+		/**
+		 * @param sessionTimeout lifetime (seconds) of the cached TLS sessions, 0 for the JSSE default; defaults to 0
+		 * @return the builder
+		 */
+		public OctaneWSTlsBuilder setSessionTimeout(int sessionTimeout) {
+			validateBuildState();
+
+			if (sessionTimeout < 0) {
+				throw new IllegalArgumentException("session timeout MUST NOT be negative");
+			}
+
+			this.sessionTimeout = sessionTimeout;
+			return this;
+		}
+
+		public OctaneWSTls build() {
+			validateBuildState();
+			if (sslContext != null && (keyStorePath != null || trustStorePath != null || trustAll || provider != null)) {
+				throw new IllegalStateException("SSL context MAY NOT be combined with key / trust stores, trust all or provider");
+			}
+			if (trustAll && trustStorePath != null) {
+				throw new IllegalStateException("trust all MAY NOT be combined with trust store");
+			}
+
+			OctaneWSTls result = new OctaneWSTls(
+					sslContext,
+					keyStorePath,
+					keyStorePassword,
+					keyStoreType,
+					trustStorePath,
+					trustStorePassword,
+					trustStoreType,
+					trustAll,
+					hostnameVerification,
+					includeProtocols,
+					includeCipherSuites,
+					applicationProtocols,
+					provider,
+					sessionCachingEnabled,
+					sessionCacheSize,
+					sessionTimeout
+			);
+			built = true;
+			return result;
+		}
+
+		private List<String> validateNames(String[] names, String what) {
+			if (names == null || names.length == 0) {
+				throw new IllegalArgumentException(what + " MUST NOT be NULL nor EMPTY");
+			}
+			for (String name : names) {
+				if (name == null || name.isEmpty()) {
+					throw new IllegalArgumentException(what + " MUST NOT contain NULL nor EMPTY entries");
+				}
+			}
+			return Collections.unmodifiableList(Arrays.asList(names.clone()));
+		}
+
+		private void validateBuildState() {
+			if (built) {
+				throw new IllegalStateException("builder, once built, MAY NOT be used any further; please create a new builder");
+			}
+		}
+	}
+}
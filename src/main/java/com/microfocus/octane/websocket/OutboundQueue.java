@@ -0,0 +1,317 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.exceptions.OctaneWSException;
+import org.eclipse.jetty.util.IteratingCallback;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, per client, outbound messages queue
+ * - producers only enqueue, the messages are written to the socket asynchronously, one at a time, preserving the order
+ * - when the queue is full the configured overflow policy is applied
+ * - when batching is enabled, consecutive messages are written in the transport's batch mode (aggregated into fewer frames writes / flushes)
+ * - batch is closed (flushed) by a non batched write of its last message: when the batch size is reached, or when the queue is drained and the batch delay elapsed;
+ * till then, the last message is held back waiting for more messages to coalesce with
+ * - transport's batch mode is switched on only for the very send of the batched message, so that the writes bypassing the queue are never held in the batch
+ * - when the spool is enabled, messages are spooled instead of failed while the session is down (or while anything is spooled, to preserve the order); their promises complete once spooled
+ * - binary message's release callback, if any, is called exactly once, when the transport is done with the buffer (written, failed, dropped or copied into the spool), before the promise completes
+ */
+final class OutboundQueue extends IteratingCallback {
+	private static final Logger logger = LoggerFactory.getLogger(OutboundQueue.class);
+	private final OctaneWSClientContext context;
+	private final Supplier<Session> sessionSupplier;
+	private final Runnable onSent;
+	private final Supplier<ScheduledExecutorService> schedulerSupplier;
+	private final long batchDelayNanos;
+	private final AtomicBoolean lingerScheduled = new AtomicBoolean(false);
+	private final OutboundSpool spool;
+	private final BlockingQueue<OutboundMessage> queue;
+	private final WriteCallback writeCallback = new OutboundWriteCallback();
+	private OutboundMessage inFlight;
+	private OutboundMessage held;
+	private boolean batchOpen;
+	private long batchOpenedAt;
+	private long batchSize;
+
+	OutboundQueue(OctaneWSClientContext context, Supplier<Session> sessionSupplier, Runnable onSent, Supplier<ScheduledExecutorService> schedulerSupplier, OutboundSpool spool) {
+		this.context = context;
+		this.sessionSupplier = sessionSupplier;
+		this.onSent = onSent;
+		this.schedulerSupplier = schedulerSupplier;
+		this.spool = spool;
+		this.batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(context.outboundBatchDelay);
+		this.queue = new ArrayBlockingQueue<>(context.outboundQueueCapacity);
+	}
+
+	CompletableFuture<Void> enqueueString(String message) {
+		return enqueue(new OutboundMessage(message, null, null));
+	}
+
+	/**
+	 * @param message binary message, its remaining bytes are sent; the buffer's position and limit are not changed
+	 * @param release callback to release the buffer with, MAY be NULL
+	 */
+	CompletableFuture<Void> enqueueBinary(ByteBuffer message, Consumer<ByteBuffer> release) {
+		return enqueue(new OutboundMessage(null, message, release));
+	}
+
+	int depth() {
+		return queue.size();
+	}
+
+	void failAll(Throwable reason) {
+		OutboundMessage message;
+		while ((message = queue.poll()) != null) {
+			message.fail(reason);
+		}
+		//  the held back message, if any, is failed by the processing, as the session is closed
+		iterate();
+	}
+
+	@Override
+	protected Action process() {
+		OutboundMessage next;
+		while ((next = held != null ? held : queue.poll()) != null) {
+			held = null;
+			Session session = sessionSupplier.get();
+			boolean workable = session != null && session.isOpen();
+			if (spool != null && (!workable || !spool.isEmpty()) && spool(next, workable)) {
+				batchOpen = false;
+				continue;
+			}
+			if (!workable) {
+				batchOpen = false;
+				next.fail(new IllegalStateException("endpoint session has not yet been initialized or it was already closed"));
+				continue;
+			}
+
+			RemoteEndpoint remote = session.getRemote();
+			BatchMode batchMode = null;
+			if (context.outboundBatchSize > 0) {
+				batchMode = resolveBatchMode(next);
+				if (batchMode == null) {
+					held = next;
+					return Action.IDLE;
+				}
+				remote.setBatchMode(batchMode);
+			}
+
+			inFlight = next;
+			try {
+				if (next.text != null) {
+					remote.sendString(next.text, writeCallback);
+				} else {
+					remote.sendBytes(next.binary, writeCallback);
+				}
+			} finally {
+				if (batchMode == BatchMode.ON) {
+					//  batch mode is the session-wide setting, read by the transport upon each send; it is restored right away,
+					//  so that the writes bypassing the queue (blocking sends, spool drain, keep alive) are not held in the batch
+					remote.setBatchMode(BatchMode.OFF);
+				}
+			}
+			return Action.SCHEDULED;
+		}
+		return Action.IDLE;
+	}
+
+	/**
+	 * @return true if the message was spooled (or failed to be spooled), false if it is to be sent right away
+	 */
+	private boolean spool(OutboundMessage message, boolean workable) {
+		byte[] payload;
+		if (message.text != null) {
+			payload = message.text.getBytes(StandardCharsets.UTF_8);
+		} else {
+			payload = new byte[message.binary.remaining()];
+			message.binary.duplicate().get(payload);
+		}
+		try {
+			if (spool.spoolIfNeeded(workable, message.text != null ? OutboundSpool.TEXT : OutboundSpool.BINARY, payload)) {
+				message.succeed();
+				if (workable) {
+					spool.drain();
+				}
+				return true;
+			}
+			return false;
+		} catch (OctaneWSException owse) {
+			message.fail(owse);
+			return true;
+		}
+	}
+
+	/**
+	 * @return batch mode to write the message with, or NULL if the message is to be held back waiting for more messages
+	 */
+	private BatchMode resolveBatchMode(OutboundMessage message) {
+		long now = System.nanoTime();
+		if (!batchOpen) {
+			batchOpen = true;
+			batchOpenedAt = now;
+			batchSize = 0;
+		}
+
+		if (batchSize + message.encodedSize < context.outboundBatchSize) {
+			if (!queue.isEmpty()) {
+				batchSize += message.encodedSize;
+				return BatchMode.ON;
+			}
+			long lingerLeft = batchDelayNanos - (now - batchOpenedAt);
+			if (lingerLeft > 0 && scheduleLinger(lingerLeft)) {
+				return null;
+			}
+		}
+
+		batchOpen = false;
+		return BatchMode.OFF;
+	}
+
+	private boolean scheduleLinger(long delayNanos) {
+		ScheduledExecutorService scheduler = schedulerSupplier.get();
+		if (scheduler == null) {
+			return false;
+		}
+		if (lingerScheduled.compareAndSet(false, true)) {
+			scheduler.schedule(() -> {
+				lingerScheduled.set(false);
+				iterate();
+			}, delayNanos, TimeUnit.NANOSECONDS);
+		}
+		return true;
+	}
+
+	private CompletableFuture<Void> enqueue(OutboundMessage message) {
+		switch (context.outboundOverflowPolicy) {
+			case BLOCK:
+				try {
+					queue.put(message);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					message.fail(new OctaneWSException("interrupted while waiting for a room in the outbound queue to " + context, ie));
+					return message.promise;
+				}
+				break;
+			case DROP_OLDEST:
+				while (!queue.offer(message)) {
+					OutboundMessage dropped = queue.poll();
+					if (dropped != null) {
+						dropped.fail(new OctaneWSException("message to " + context + " has been dropped due to the outbound queue overflow"));
+					}
+				}
+				break;
+			case FAIL_FAST:
+			default:
+				if (!queue.offer(message)) {
+					message.fail(new OctaneWSException("outbound queue to " + context + " is full (" + context.outboundQueueCapacity + " messages)"));
+					return message.promise;
+				}
+		}
+
+		iterate();
+		return message.promise;
+	}
+
+	private final class OutboundMessage {
+		private final String text;
+		private final ByteBuffer binary;
+		private final ByteBuffer original;
+		private final Consumer<ByteBuffer> release;
+		private final int size;
+		private final int encodedSize;
+		private final long enqueuedAt = System.nanoTime();
+		private final CompletableFuture<Void> promise = new CompletableFuture<>();
+
+		private OutboundMessage(String text, ByteBuffer binary, Consumer<ByteBuffer> release) {
+			this.text = text;
+			//  the transport consumes the buffer it writes, thus it is given a slice, leaving the producer's buffer intact
+			this.binary = binary == null ? null : binary.slice();
+			this.original = binary;
+			this.release = release;
+			this.size = text != null ? text.length() : binary.remaining();
+			//  batch size is in bytes, thus the text is measured by its UTF-8 encoded length
+			this.encodedSize = text != null && context.outboundBatchSize > 0 ? utf8Length(text) : size;
+		}
+
+		private void succeed() {
+			release();
+			promise.complete(null);
+		}
+
+		private void fail(Throwable reason) {
+			release();
+			promise.completeExceptionally(reason);
+		}
+
+		private void release() {
+			if (release != null) {
+				try {
+					release.accept(original);
+				} catch (Exception e) {
+					logger.error("failed to release buffer of message to " + context, e);
+				}
+			}
+		}
+	}
+
+	private static int utf8Length(String text) {
+		int result = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				result++;
+			} else if (c < 0x800) {
+				result += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+				result += 4;
+				i++;
+			} else {
+				result += 3;
+			}
+		}
+		return result;
+	}
+
+	private final class OutboundWriteCallback implements WriteCallback {
+
+		@Override
+		public void writeSuccess() {
+			OutboundMessage sent = inFlight;
+			inFlight = null;
+			//  latency of the asynchronous sends is measured from enqueueing, thus including the time spent in the queue
+			if (sent.text != null) {
+				context.metrics.onStringMessageSent(sent.size, System.nanoTime() - sent.enqueuedAt);
+			} else {
+				context.metrics.onBinaryMessageSent(sent.size, System.nanoTime() - sent.enqueuedAt);
+			}
+			onSent.run();
+			sent.succeed();
+			succeeded();
+		}
+
+		@Override
+		public void writeFailed(Throwable throwable) {
+			OutboundMessage failed = inFlight;
+			inFlight = null;
+			context.metrics.onSendFailed();
+			failed.fail(new OctaneWSException("failed to send message to " + context, throwable));
+			//  the queue proceeds with the next messages, failure of one message does not terminate the flow
+			succeeded();
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.exceptions.OctaneWSException;
+import org.eclipse.jetty.util.IteratingCallback;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Outbound spool of the endpoint client, see OctaneWSSpool for the semantics
+ * - ring buffer of records [length (int), type (byte), payload], preceded by a header holding the ring's state, so that the memory-mapped spool is restored upon restart
+ * - storage operations are synchronized on the spool; draining is performed by a single iterating writer, one message at a time
+ */
+final class OutboundSpool {
+	private static final Logger logger = LoggerFactory.getLogger(OutboundSpool.class);
+	private static final int MAGIC = 0x4F575353;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int CAPACITY_OFFSET = 4;
+	private static final int HEAD_OFFSET = 8;
+	private static final int TAIL_OFFSET = 16;
+	private static final int COUNT_OFFSET = 24;
+	private static final int HEADER_SIZE = 32;
+	private static final int RECORD_HEADER_SIZE = 5;
+	static final byte TEXT = 0;
+	static final byte BINARY = 1;
+
+	private final OctaneWSClientContext context;
+	private final OctaneWSSpool config;
+	private final int capacity;
+	private final ByteBuffer buffer;
+	private final Drainer drainer;
+	private long head;
+	private long tail;
+	private volatile int count;
+
+	OutboundSpool(OctaneWSClientContext context, Supplier<Session> sessionSupplier, Runnable onSent) {
+		this.context = context;
+		this.config = context.spool;
+		this.capacity = config.maxBytes;
+		this.buffer = config.file == null ? ByteBuffer.allocate(HEADER_SIZE + capacity) : mapFile();
+		this.drainer = new Drainer(sessionSupplier, onSent);
+		restoreOrReset();
+	}
+
+	boolean isEmpty() {
+		return count == 0;
+	}
+
+	int size() {
+		return count;
+	}
+
+	/**
+	 * spools the message if the session is not workable or if there are messages spooled already (so that the order is preserved)
+	 *
+	 * @return true if the message was spooled, false if it is to be sent right away
+	 * @throws OctaneWSException if the spool is full (FAIL_FAST) or the message is larger than the whole spool
+	 */
+	synchronized boolean spoolIfNeeded(boolean workable, byte type, byte[] payload) {
+		if (workable && count == 0) {
+			return false;
+		}
+
+		int recordSize = RECORD_HEADER_SIZE + payload.length;
+		if (recordSize > capacity) {
+			throw new OctaneWSException("message of " + payload.length + " bytes exceeds the spool capacity of " + context);
+		}
+		while (count >= config.maxMessages || (tail - head) + recordSize > capacity) {
+			if (config.overflowPolicy == OctaneWSOverflowPolicy.DROP_OLDEST) {
+				removeHead();
+				context.metrics.onSpoolDropped();
+				logger.warn("spool of " + context + " is full, the oldest message dropped");
+			} else {
+				throw new OctaneWSException("spool of " + context + " is full (" + count + " messages)");
+			}
+		}
+
+		byte[] recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE).putInt(payload.length).put(type).array();
+		write(tail, recordHeader);
+		write(tail + RECORD_HEADER_SIZE, payload);
+		tail += recordSize;
+		count++;
+		persistState();
+		return true;
+	}
+
+	/**
+	 * drains the spooled messages to the current session, if any; no-op if already draining
+	 */
+	void drain() {
+		drainer.halted = false;
+		drainer.iterate();
+	}
+
+	/**
+	 * forces the memory-mapped spool content to the storage; no-op for in memory spool
+	 */
+	void flush() {
+		if (buffer instanceof MappedByteBuffer) {
+			((MappedByteBuffer) buffer).force();
+		}
+	}
+
+	private synchronized SpooledMessage peek() {
+		if (count == 0) {
+			return null;
+		}
+		byte[] recordHeader = read(head, RECORD_HEADER_SIZE);
+		int length = ByteBuffer.wrap(recordHeader).getInt();
+		return new SpooledMessage(head, recordHeader[4], read(head + RECORD_HEADER_SIZE, length));
+	}
+
+	/**
+	 * removes the message if it is still the head one (it could have been dropped meanwhile due to overflow)
+	 */
+	private synchronized void remove(long position) {
+		if (count > 0 && head == position) {
+			removeHead();
+			persistState();
+		}
+	}
+
+	private void removeHead() {
+		int length = ByteBuffer.wrap(read(head, RECORD_HEADER_SIZE)).getInt();
+		head += RECORD_HEADER_SIZE + length;
+		count--;
+	}
+
+	private void write(long position, byte[] source) {
+		int index = (int) (position % capacity);
+		int firstPart = Math.min(source.length, capacity - index);
+		ByteBuffer target = buffer.duplicate();
+		target.position(HEADER_SIZE + index);
+		target.put(source, 0, firstPart);
+		if (firstPart < source.length) {
+			target.position(HEADER_SIZE);
+			target.put(source, firstPart, source.length - firstPart);
+		}
+	}
+
+	private byte[] read(long position, int length) {
+		byte[] result = new byte[length];
+		int index = (int) (position % capacity);
+		int firstPart = Math.min(length, capacity - index);
+		ByteBuffer source = buffer.duplicate();
+		source.position(HEADER_SIZE + index);
+		source.get(result, 0, firstPart);
+		if (firstPart < length) {
+			source.position(HEADER_SIZE);
+			source.get(result, firstPart, length - firstPart);
+		}
+		return result;
+	}
+
+	private void persistState() {
+		buffer.putLong(HEAD_OFFSET, head);
+		buffer.putLong(TAIL_OFFSET, tail);
+		buffer.putInt(COUNT_OFFSET, count);
+	}
+
+	private void restoreOrReset() {
+		long storedHead = buffer.getLong(HEAD_OFFSET);
+		long storedTail = buffer.getLong(TAIL_OFFSET);
+		int storedCount = buffer.getInt(COUNT_OFFSET);
+		if (buffer.getInt(MAGIC_OFFSET) == MAGIC &&
+				buffer.getInt(CAPACITY_OFFSET) == capacity &&
+				storedHead >= 0 && storedTail >= storedHead && storedTail - storedHead <= capacity && storedCount >= 0) {
+			head = storedHead;
+			tail = storedTail;
+			count = storedCount;
+			if (count > 0) {
+				logger.info("restored " + count + " spooled message/s of " + context + " from " + config.file);
+			}
+		} else {
+			if (config.file != null && buffer.getInt(MAGIC_OFFSET) == MAGIC) {
+				logger.warn("spool file " + config.file + " of " + context + " does not match the configured spool size, its content is discarded");
+			}
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			head = 0;
+			tail = 0;
+			count = 0;
+			persistState();
+		}
+	}
+
+	private ByteBuffer mapFile() {
+		try (FileChannel channel = FileChannel.open(config.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			//  mapping remains valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+		} catch (IOException ioe) {
+			throw new OctaneWSException("failed to map spool file " + config.file + " of " + context, ioe);
+		}
+	}
+
+	private static final class SpooledMessage {
+		private final long position;
+		private final byte type;
+		private final byte[] payload;
+
+		private SpooledMessage(long position, byte type, byte[] payload) {
+			this.position = position;
+			this.type = type;
+			this.payload = payload;
+		}
+	}
+
+	private final class Drainer extends IteratingCallback implements WriteCallback {
+		private final Supplier<Session> sessionSupplier;
+		private final Runnable onSent;
+		private volatile boolean halted;
+		private SpooledMessage inFlight;
+
+		private Drainer(Supplier<Session> sessionSupplier, Runnable onSent) {
+			this.sessionSupplier = sessionSupplier;
+			this.onSent = onSent;
+		}
+
+		@Override
+		protected Action process() {
+			if (halted) {
+				return Action.IDLE;
+			}
+			Session session = sessionSupplier.get();
+			if (session == null || !session.isOpen()) {
+				return Action.IDLE;
+			}
+			SpooledMessage next = peek();
+			if (next == null) {
+				return Action.IDLE;
+			}
+
+			inFlight = next;
+			if (next.type == BINARY) {
+				session.getRemote().sendBytes(ByteBuffer.wrap(next.payload), this);
+			} else {
+				session.getRemote().sendString(new String(next.payload, StandardCharsets.UTF_8), this);
+			}
+			return Action.SCHEDULED;
+		}
+
+		@Override
+		public void writeSuccess() {
+			SpooledMessage sent = inFlight;
+			inFlight = null;
+			remove(sent.position);
+			onSent.run();
+			succeeded();
+		}
+
+		@Override
+		public void writeFailed(Throwable throwable) {
+			inFlight = null;
+			//  the message stays spooled, draining is resumed upon the next connect (or the next spooled message)
+			halted = true;
+			logger.error("failed to send spooled message to " + context + ", " + count + " message/s remain spooled", throwable);
+			succeeded();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.microfocus.octane.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WebSocketPartialListener;
+import org.eclipse.jetty.websocket.api.WebSocketPingPongListener;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Listener registered with the transport instead of the endpoint client itself when the partial messages delivery is enabled
+ * - connection events are delegated to the endpoint client as is
+ * - message frames are delegated to the endpoint client as they arrive, without aggregating the whole message
+ * - for the metrics, message is accounted upon its last part, sized as the sum of all its parts
+ */
+final class PartialMessagesListener implements WebSocketPartialListener, WebSocketPingPongListener {
+	private final OctaneWSEndpointClient endpointClient;
+	private final OctaneWSMetrics metrics;
+	private int stringMessageSize;
+	private int binaryMessageSize;
+
+	PartialMessagesListener(OctaneWSEndpointClient endpointClient) {
+		this.endpointClient = endpointClient;
+		this.metrics = endpointClient.getContext().metrics;
+	}
+
+	@Override
+	public void onWebSocketConnect(Session session) {
+		endpointClient.onWebSocketConnect(session);
+	}
+
+	@Override
+	public void onWebSocketClose(int statusCode, String reason) {
+		endpointClient.onWebSocketClose(statusCode, reason);
+	}
+
+	@Override
+	public void onWebSocketError(Throwable cause) {
+		endpointClient.onWebSocketError(cause);
+	}
+
+	@Override
+	public void onWebSocketPing(ByteBuffer payload) {
+		endpointClient.onWebSocketPing(payload);
+	}
+
+	@Override
+	public void onWebSocketPong(ByteBuffer payload) {
+		endpointClient.onWebSocketPong(payload);
+	}
+
+	@Override
+	public void onWebSocketPartialText(String payload, boolean fin) {
+		endpointClient.onActivity();
+		stringMessageSize += payload.length();
+		if (fin) {
+			metrics.onStringMessageReceived(stringMessageSize);
+			stringMessageSize = 0;
+		}
+		endpointClient.onStringMessagePart(payload, fin);
+	}
+
+	@Override
+	public void onWebSocketPartialBinary(ByteBuffer payload, boolean fin) {
+		endpointClient.onActivity();
+		binaryMessageSize += payload.remaining();
+		if (fin) {
+			metrics.onBinaryMessageReceived(binaryMessageSize);
+			binaryMessageSize = 0;
+		}
+		endpointClient.onBinaryMessagePart(payload.asReadOnlyBuffer(), fin);
+	}
+}
@@ -0,0 +1,60 @@
+package com.microfocus.octane.websocket;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per client reconnect state, driven by the client's reconnect policy
+ */
+final class ReconnectBackoff {
+	private final OctaneWSReconnectPolicy policy;
+	private int consecutiveFailures = 0;
+	private long nextAttemptAt = 0;
+
+	ReconnectBackoff(OctaneWSReconnectPolicy policy) {
+		this.policy = policy;
+	}
+
+	synchronized boolean isCircuitOpen(long now) {
+		return isCircuitBreakerTripped() && now < nextAttemptAt;
+	}
+
+	synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	/**
+	 * @return delay (millis) until the first attempt after the session loss is due, fully jittered within the initial delay (so that the clients dropped together do not reconnect in a lockstep)
+	 */
+	long onDisconnected() {
+		return ThreadLocalRandom.current().nextLong(policy.initialDelay + 1);
+	}
+
+	/**
+	 * @param now current time millis
+	 * @return delay (millis) until the next attempt is due
+	 */
+	synchronized long onFailure(long now) {
+		if (consecutiveFailures < Integer.MAX_VALUE) {
+			consecutiveFailures++;
+		}
+
+		long delay;
+		if (isCircuitBreakerTripped()) {
+			delay = policy.circuitBreakerOpenDuration;
+		} else {
+			double cap = Math.min(policy.maxDelay, policy.initialDelay * Math.pow(policy.multiplier, consecutiveFailures - 1));
+			delay = ThreadLocalRandom.current().nextLong((long) cap + 1);
+		}
+		nextAttemptAt = now + delay;
+		return delay;
+	}
+
+	synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		nextAttemptAt = 0;
+	}
+
+	private boolean isCircuitBreakerTripped() {
+		return policy.circuitBreakerThreshold > 0 && consecutiveFailures >= policy.circuitBreakerThreshold;
+	}
+}
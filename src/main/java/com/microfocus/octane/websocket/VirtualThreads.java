@@ -0,0 +1,33 @@
+package com.microfocus.octane.websocket;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads support, resolved per runtime by the multi-release JAR
+ * - this (baseline) version runs on any JDK and provides the platform threads only
+ * - JDK 21+ version (src/main/java21, packaged under META-INF/versions/21) provides the virtual threads
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @param namePrefix prefix of the threads names
+	 * @return executor running each task on a new virtual thread; NULL, as the virtual threads are not available on this JVM (JDK 21+ required)
+	 */
+	static ExecutorService newExecutor(String namePrefix) {
+		return null;
+	}
+
+	/**
+	 * @param name name of the thread
+	 * @param task task to run
+	 * @return new, not started, thread running the task: virtual one when supported, platform daemon one otherwise
+	 */
+	static Thread newThread(String name, Runnable task) {
+		Thread result = new Thread(task, name);
+		result.setDaemon(true);
+		return result;
+	}
+}
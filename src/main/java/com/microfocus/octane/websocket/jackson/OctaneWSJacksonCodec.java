@@ -0,0 +1,133 @@
+package com.microfocus.octane.websocket.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.microfocus.octane.websocket.OctaneWSCodec;
+
+import java.io.IOException;
+
+/**
+ * Jackson binding of the messages codec SPI
+ * - requires 'com.fasterxml.jackson.core:jackson-databind' on the classpath, plus 'jackson-dataformat-cbor' / 'jackson-dataformat-smile' for the binary formats (optional dependencies of this library)
+ * - textual formats (JSON) are sent as string messages, binary formats (CBOR, Smile) as binary messages
+ * - JSON decoder accepts binary (UTF-8) messages as well, parsing them straight from the bytes, without decoding them into String first
+ * - readers / writers are prepared once per codec and reuse Jackson's recycled buffers, thus per message allocation is about the decoded object itself
+ * - codec is thread safe and MAY be shared by many clients
+ *
+ * @param <T> type of the messages
+ */
+public final class OctaneWSJacksonCodec<T> implements OctaneWSCodec<T> {
+	private final ObjectReader reader;
+	private final ObjectWriter writer;
+	private final boolean binary;
+
+	private OctaneWSJacksonCodec(ObjectMapper mapper, ObjectReader reader, ObjectWriter writer) {
+		this.reader = reader;
+		this.writer = writer;
+		this.binary = mapper.getFactory().canHandleBinaryNatively();
+	}
+
+	/**
+	 * @param type type of the messages
+	 * @return JSON codec backed by a default ObjectMapper
+	 */
+	public static <T> OctaneWSJacksonCodec<T> json(Class<T> type) {
+		return of(JsonMapperHolder.INSTANCE, type);
+	}
+
+	/**
+	 * @param type type of the messages
+	 * @return CBOR codec backed by a default CBORMapper
+	 */
+	public static <T> OctaneWSJacksonCodec<T> cbor(Class<T> type) {
+		return of(CborMapperHolder.INSTANCE, type);
+	}
+
+	/**
+	 * @param type type of the messages
+	 * @return Smile codec backed by a default SmileMapper
+	 */
+	public static <T> OctaneWSJacksonCodec<T> smile(Class<T> type) {
+		return of(SmileMapperHolder.INSTANCE, type);
+	}
+
+	/**
+	 * @param mapper configured mapper of any data format; binary formats are told by the mapper's factory (canHandleBinaryNatively)
+	 * @param type   type of the messages
+	 * @return codec
+	 */
+	public static <T> OctaneWSJacksonCodec<T> of(ObjectMapper mapper, Class<T> type) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper MUST NOT be NULL");
+		}
+		if (type == null) {
+			throw new IllegalArgumentException("type MUST NOT be NULL");
+		}
+		return new OctaneWSJacksonCodec<>(mapper, mapper.readerFor(type), mapper.writerFor(type));
+	}
+
+	/**
+	 * @param mapper configured mapper of any data format; binary formats are told by the mapper's factory (canHandleBinaryNatively)
+	 * @param type   (generic) type of the messages
+	 * @return codec
+	 */
+	public static <T> OctaneWSJacksonCodec<T> of(ObjectMapper mapper, TypeReference<T> type) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper MUST NOT be NULL");
+		}
+		if (type == null) {
+			throw new IllegalArgumentException("type MUST NOT be NULL");
+		}
+		return new OctaneWSJacksonCodec<>(mapper, mapper.readerFor(type), mapper.writerFor(type));
+	}
+
+	@Override
+	public boolean isBinary() {
+		return binary;
+	}
+
+	@Override
+	public T decode(String message) throws IOException {
+		if (binary) {
+			throw new UnsupportedOperationException("string messages are not supported by binary format codec (" + reader.getFactory().getFormatName() + ")");
+		}
+		return reader.readValue(message);
+	}
+
+	@Override
+	public T decode(byte[] message, int offset, int length) throws IOException {
+		return reader.readValue(message, offset, length);
+	}
+
+	@Override
+	public String encodeString(T message) throws IOException {
+		if (binary) {
+			throw new UnsupportedOperationException("string messages are not supported by binary format codec (" + writer.getFactory().getFormatName() + ")");
+		}
+		return writer.writeValueAsString(message);
+	}
+
+	@Override
+	public byte[] encodeBinary(T message) throws IOException {
+		return writer.writeValueAsBytes(message);
+	}
+
+	/**
+	 * default mappers are held by the dedicated classes, so that the data format classes are resolved only if/when the relevant format is used
+	 */
+	private static final class JsonMapperHolder {
+		private static final ObjectMapper INSTANCE = new ObjectMapper();
+	}
+
+	private static final class CborMapperHolder {
+		private static final ObjectMapper INSTANCE = new CBORMapper();
+	}
+
+	private static final class SmileMapperHolder {
+		private static final ObjectMapper INSTANCE = new SmileMapper();
+	}
+}
@@ -0,0 +1,164 @@
+package com.microfocus.octane.websocket.micrometer;
+
+import com.microfocus.octane.websocket.OctaneWSMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer binding of the endpoint clients metrics
+ * - requires 'io.micrometer:micrometer-core' on the classpath (optional dependency of this library)
+ * - all the meters are registered upfront, reporting is allocation free
+ * - single instance may be shared by many contexts (meters aggregated), or created per context with distinguishing tags
+ * - PING round trip time is published with 0.5 / 0.95 / 0.99 percentiles, thus per client percentiles require an instance per context
+ */
+public class OctaneWSMicrometerMetrics implements OctaneWSMetrics {
+	private static final String PREFIX = "octane.ws.";
+
+	private final AtomicInteger openSessions = new AtomicInteger();
+	private final Counter connectsSucceeded;
+	private final Counter connectsFailed;
+	private final Counter closes;
+	private final Counter reconnectAttempts;
+	private final Timer loginsSucceeded;
+	private final Timer loginsFailed;
+	private final Timer stringSends;
+	private final Timer binarySends;
+	private final DistributionSummary stringSentSizes;
+	private final DistributionSummary binarySentSizes;
+	private final Counter sendsFailed;
+	private final DistributionSummary stringReceivedSizes;
+	private final DistributionSummary binaryReceivedSizes;
+	private final Counter errors;
+	private final Counter inboundDropped;
+	private final Counter spoolDropped;
+	private final Counter pingsSent;
+	private final Counter pingsFailed;
+	private final Timer pingRoundTrips;
+	private final Counter deadSessions;
+
+	public OctaneWSMicrometerMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+		if (registry == null) {
+			throw new IllegalArgumentException("registry MUST NOT be NULL");
+		}
+		Tags baseTags = tags == null ? Tags.empty() : Tags.of(tags);
+
+		Gauge.builder(PREFIX + "sessions.open", openSessions, AtomicInteger::get).tags(baseTags).register(registry);
+		connectsSucceeded = Counter.builder(PREFIX + "connects").tags(baseTags).tag("outcome", "success").register(registry);
+		connectsFailed = Counter.builder(PREFIX + "connects").tags(baseTags).tag("outcome", "failure").register(registry);
+		closes = Counter.builder(PREFIX + "closes").tags(baseTags).register(registry);
+		reconnectAttempts = Counter.builder(PREFIX + "reconnect.attempts").tags(baseTags).register(registry);
+		loginsSucceeded = Timer.builder(PREFIX + "logins").tags(baseTags).tag("outcome", "success").register(registry);
+		loginsFailed = Timer.builder(PREFIX + "logins").tags(baseTags).tag("outcome", "failure").register(registry);
+		stringSends = Timer.builder(PREFIX + "sends").tags(baseTags).tag("type", "string").register(registry);
+		binarySends = Timer.builder(PREFIX + "sends").tags(baseTags).tag("type", "binary").register(registry);
+		stringSentSizes = DistributionSummary.builder(PREFIX + "messages.sent").baseUnit("chars").tags(baseTags).tag("type", "string").register(registry);
+		binarySentSizes = DistributionSummary.builder(PREFIX + "messages.sent").baseUnit("bytes").tags(baseTags).tag("type", "binary").register(registry);
+		sendsFailed = Counter.builder(PREFIX + "sends.failed").tags(baseTags).register(registry);
+		stringReceivedSizes = DistributionSummary.builder(PREFIX + "messages.received").baseUnit("chars").tags(baseTags).tag("type", "string").register(registry);
+		binaryReceivedSizes = DistributionSummary.builder(PREFIX + "messages.received").baseUnit("bytes").tags(baseTags).tag("type", "binary").register(registry);
+		errors = Counter.builder(PREFIX + "errors").tags(baseTags).register(registry);
+		inboundDropped = Counter.builder(PREFIX + "messages.received.dropped").tags(baseTags).register(registry);
+		spoolDropped = Counter.builder(PREFIX + "spool.dropped").tags(baseTags).register(registry);
+		pingsSent = Counter.builder(PREFIX + "pings").tags(baseTags).tag("outcome", "success").register(registry);
+		pingsFailed = Counter.builder(PREFIX + "pings").tags(baseTags).tag("outcome", "failure").register(registry);
+		pingRoundTrips = Timer.builder(PREFIX + "ping.rtt").tags(baseTags).publishPercentiles(0.5, 0.95, 0.99).register(registry);
+		deadSessions = Counter.builder(PREFIX + "sessions.dead").tags(baseTags).register(registry);
+	}
+
+	@Override
+	public void onConnected() {
+		openSessions.incrementAndGet();
+		connectsSucceeded.increment();
+	}
+
+	@Override
+	public void onConnectFailed() {
+		connectsFailed.increment();
+	}
+
+	@Override
+	public void onClosed(int statusCode) {
+		openSessions.decrementAndGet();
+		closes.increment();
+	}
+
+	@Override
+	public void onReconnectAttempt() {
+		reconnectAttempts.increment();
+	}
+
+	@Override
+	public void onLogin(long durationNanos, boolean success) {
+		(success ? loginsSucceeded : loginsFailed).record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onStringMessageSent(int chars, long durationNanos) {
+		stringSentSizes.record(chars);
+		stringSends.record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onBinaryMessageSent(int bytes, long durationNanos) {
+		binarySentSizes.record(bytes);
+		binarySends.record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onSendFailed() {
+		sendsFailed.increment();
+	}
+
+	@Override
+	public void onStringMessageReceived(int chars) {
+		stringReceivedSizes.record(chars);
+	}
+
+	@Override
+	public void onBinaryMessageReceived(int bytes) {
+		binaryReceivedSizes.record(bytes);
+	}
+
+	@Override
+	public void onError() {
+		errors.increment();
+	}
+
+	@Override
+	public void onInboundDropped() {
+		inboundDropped.increment();
+	}
+
+	@Override
+	public void onSpoolDropped() {
+		spoolDropped.increment();
+	}
+
+	@Override
+	public void onPingSent() {
+		pingsSent.increment();
+	}
+
+	@Override
+	public void onPingFailed() {
+		pingsFailed.increment();
+	}
+
+	@Override
+	public void onPongReceived(long roundTripNanos) {
+		pingRoundTrips.record(roundTripNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onDeadSessionDetected() {
+		deadSessions.increment();
+	}
+}
@@ -0,0 +1,32 @@
+package com.microfocus.octane.websocket;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads support, resolved per runtime by the multi-release JAR
+ * - this (JDK 21+) version provides the virtual threads
+ * - baseline version (src/main/java) provides the platform threads only
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @param namePrefix prefix of the threads names
+	 * @return executor running each task on a new virtual thread; never NULL in this version
+	 */
+	static ExecutorService newExecutor(String namePrefix) {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+	}
+
+	/**
+	 * @param name name of the thread
+	 * @param task task to run
+	 * @return new, not started, virtual thread running the task
+	 */
+	static Thread newThread(String name, Runnable task) {
+		return Thread.ofVirtual().name(name).unstarted(task);
+	}
+}
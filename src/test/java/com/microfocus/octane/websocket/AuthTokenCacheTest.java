@@ -0,0 +1,122 @@
+package com.microfocus.octane.websocket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.HttpCookie;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AuthTokenCacheTest {
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final OctaneWSClientContext context = OctaneWSClientContext.builder()
+			.setEndpointUrl("ws://localhost:8080/messaging/a")
+			.setClient("some_client")
+			.setSecret("some_secret")
+			.build();
+	private final OctaneWSClientContext sameCredentialsContext = OctaneWSClientContext.builder()
+			.setEndpointUrl("ws://localhost:8080/messaging/b")
+			.setClient("some_client")
+			.setSecret("some_secret")
+			.build();
+	private final OctaneWSClientContext otherSecretContext = OctaneWSClientContext.builder()
+			.setEndpointUrl("ws://localhost:8080/messaging/a")
+			.setClient("some_client")
+			.setSecret("other_secret")
+			.build();
+
+	@Test
+	public void testSingleFlightLogin() {
+		AtomicInteger logins = new AtomicInteger();
+		CompletableFuture<HttpCookie> loginPromise = new CompletableFuture<>();
+		AuthTokenCache cache = new AuthTokenCache(c -> {
+			logins.incrementAndGet();
+			return loginPromise;
+		}, scheduler);
+
+		CompletableFuture<HttpCookie> first = cache.acquire(context);
+		CompletableFuture<HttpCookie> second = cache.acquire(sameCredentialsContext);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, logins.get());
+
+		loginPromise.complete(new HttpCookie("LWSSO_COOKIE_KEY", "token_a"));
+		Assert.assertEquals("token_a", cache.acquire(context).join().getValue());
+		Assert.assertEquals(1, logins.get());
+
+		cache.acquire(otherSecretContext);
+		Assert.assertEquals(2, logins.get());
+	}
+
+	@Test
+	public void testInvalidation() {
+		AtomicInteger logins = new AtomicInteger();
+		AuthTokenCache cache = new AuthTokenCache(c -> CompletableFuture.completedFuture(new HttpCookie("LWSSO_COOKIE_KEY", "token_" + logins.incrementAndGet())), scheduler);
+
+		HttpCookie first = cache.acquire(context).join();
+		cache.invalidate(context, first);
+		HttpCookie second = cache.acquire(context).join();
+		Assert.assertEquals("token_2", second.getValue());
+
+		//  stale token invalidation preserves the renewed one
+		cache.invalidate(context, first);
+		Assert.assertEquals("token_2", cache.acquire(context).join().getValue());
+		Assert.assertEquals(2, logins.get());
+	}
+
+	@Test
+	public void testFailedLoginIsNotCached() {
+		AtomicInteger logins = new AtomicInteger();
+		AuthTokenCache cache = new AuthTokenCache(c -> {
+			CompletableFuture<HttpCookie> result = new CompletableFuture<>();
+			if (logins.incrementAndGet() == 1) {
+				result.completeExceptionally(new IllegalStateException("failed"));
+			} else {
+				result.complete(new HttpCookie("LWSSO_COOKIE_KEY", "token"));
+			}
+			return result;
+		}, scheduler);
+
+		Assert.assertTrue(cache.acquire(context).isCompletedExceptionally());
+		Assert.assertEquals("token", cache.acquire(context).join().getValue());
+	}
+
+	@Test
+	public void testProactiveRefresh() {
+		AtomicInteger logins = new AtomicInteger();
+		AuthTokenCache cache = new AuthTokenCache(c -> {
+			HttpCookie token = new HttpCookie("LWSSO_COOKIE_KEY", "token_" + logins.incrementAndGet());
+			token.setMaxAge(2);
+			return CompletableFuture.completedFuture(token);
+		}, scheduler);
+
+		cache.retain(context);
+		Assert.assertEquals("token_1", cache.acquire(context).join().getValue());
+		WSTestsUtils.waitAtMostFor(3000, () -> logins.get() > 1 ? true : null);
+		Assert.assertEquals("token_2", cache.acquire(context).join().getValue());
+
+		//  once not used, the token is evicted instead of being refreshed
+		cache.release(context);
+		WSTestsUtils.delay(2000);
+		Assert.assertEquals(2, logins.get());
+	}
+
+	@Test
+	public void testNotExpiringTokenEvictedOnLastRelease() {
+		AtomicInteger logins = new AtomicInteger();
+		AuthTokenCache cache = new AuthTokenCache(c -> CompletableFuture.completedFuture(new HttpCookie("LWSSO_COOKIE_KEY", "token_" + logins.incrementAndGet())), scheduler);
+
+		cache.retain(context);
+		cache.retain(sameCredentialsContext);
+		Assert.assertEquals("token_1", cache.acquire(context).join().getValue());
+
+		//  still used by the other client
+		cache.release(context);
+		Assert.assertEquals("token_1", cache.acquire(context).join().getValue());
+
+		cache.release(sameCredentialsContext);
+		Assert.assertEquals("token_2", cache.acquire(context).join().getValue());
+		Assert.assertEquals(2, logins.get());
+	}
+}
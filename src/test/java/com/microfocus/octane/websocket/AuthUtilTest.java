@@ -0,0 +1,28 @@
+package com.microfocus.octane.websocket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthUtilTest {
+
+	@Test
+	public void testLoginHttpClientKeyHoldsNoProxyPassword() {
+		String keyA = AuthUtil.loginHttpClientKey(buildContext("proxy_password_a"));
+		String keyB = AuthUtil.loginHttpClientKey(buildContext("proxy_password_b"));
+
+		Assert.assertFalse(keyA.contains("proxy_password_a"));
+		Assert.assertNotEquals(keyA, keyB);
+		Assert.assertEquals(keyA, AuthUtil.loginHttpClientKey(buildContext("proxy_password_a")));
+	}
+
+	private static OctaneWSClientContext buildContext(String proxyPassword) {
+		return OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.setProxyUrl("http://localhost:3128")
+				.setProxyUsername("proxy_user")
+				.setProxyPassword(proxyPassword)
+				.build();
+	}
+}
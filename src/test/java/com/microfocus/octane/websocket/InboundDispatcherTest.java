@@ -0,0 +1,118 @@
+package com.microfocus.octane.websocket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class InboundDispatcherTest {
+
+	@Test
+	public void testOrderPreservedPerClient() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<String> received = new CopyOnWriteArrayList<>();
+			InboundDispatcher dispatcher = new InboundDispatcher(buildContext(OctaneWSInboundDispatch.builder()
+					.setExecutor(executor)
+					.build()), received::add, message -> {
+			});
+
+			List<String> sent = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				sent.add("message " + i);
+				dispatcher.dispatchString("message " + i);
+			}
+			WSTestsUtils.waitAtMostFor(3000, () -> received.size() == sent.size() ? true : null);
+			Assert.assertEquals(sent, received);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testOrderPreservedPerKey() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Map<String, List<String>> received = new ConcurrentHashMap<>();
+			InboundDispatcher dispatcher = new InboundDispatcher(buildContext(OctaneWSInboundDispatch.builder()
+					.setExecutor(executor)
+					.setLanes(4)
+					.setStringOrderingKeyExtractor(message -> message.substring(0, message.indexOf(':')))
+					.build()), message -> received.computeIfAbsent(message.substring(0, message.indexOf(':')), key -> new CopyOnWriteArrayList<>()).add(message), message -> {
+			});
+
+			for (int i = 0; i < 1000; i++) {
+				dispatcher.dispatchString("key" + (i % 10) + ":" + i);
+			}
+			WSTestsUtils.waitAtMostFor(3000, () -> received.values().stream().mapToInt(List::size).sum() == 1000 ? true : null);
+			for (List<String> keyMessages : received.values()) {
+				int previous = -1;
+				for (String message : keyMessages) {
+					int index = Integer.parseInt(message.substring(message.indexOf(':') + 1));
+					Assert.assertTrue(index > previous);
+					previous = index;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailFastOverflow() {
+		List<Runnable> pendingTasks = new ArrayList<>();
+		List<String> received = new ArrayList<>();
+		InboundDispatcher dispatcher = new InboundDispatcher(buildContext(OctaneWSInboundDispatch.builder()
+				.setExecutor(pendingTasks::add)
+				.setQueueCapacity(2)
+				.setOverflowPolicy(OctaneWSOverflowPolicy.FAIL_FAST)
+				.build()), received::add, message -> {
+		});
+
+		dispatcher.dispatchString("a");
+		dispatcher.dispatchString("b");
+		dispatcher.dispatchString("c");
+		Assert.assertEquals(2, dispatcher.depth());
+		Assert.assertEquals(1, pendingTasks.size());
+
+		pendingTasks.get(0).run();
+		Assert.assertEquals(2, received.size());
+		Assert.assertEquals("a", received.get(0));
+		Assert.assertEquals("b", received.get(1));
+		Assert.assertEquals(0, dispatcher.depth());
+	}
+
+	@Test
+	public void testBinaryCopiedOnlyIfSliced() {
+		List<Runnable> pendingTasks = new ArrayList<>();
+		List<byte[]> received = new ArrayList<>();
+		InboundDispatcher dispatcher = new InboundDispatcher(buildContext(OctaneWSInboundDispatch.builder()
+				.setExecutor(pendingTasks::add)
+				.build()), message -> {
+		}, received::add);
+
+		byte[] whole = new byte[]{1, 2, 3, 4};
+		dispatcher.dispatchBinary(whole, 0, whole.length);
+		dispatcher.dispatchBinary(whole, 1, 2);
+		pendingTasks.get(0).run();
+
+		Assert.assertEquals(2, received.size());
+		Assert.assertSame(whole, received.get(0));
+		Assert.assertArrayEquals(new byte[]{2, 3}, received.get(1));
+	}
+
+	private static OctaneWSClientContext buildContext(OctaneWSInboundDispatch dispatch) {
+		return OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.setInboundDispatch(dispatch)
+				.build();
+	}
+}
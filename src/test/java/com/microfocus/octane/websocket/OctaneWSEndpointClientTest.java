@@ -0,0 +1,81 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.clients.EndpointClientTestA;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class OctaneWSEndpointClientTest {
+	private final OctaneWSClientContext context = OctaneWSClientContext.builder()
+			.setEndpointUrl("ws://localhost:8080")
+			.setClient("some_client")
+			.setSecret("some_secret")
+			.build();
+
+	@Test
+	public void testBinarySliceToArrayCallback() {
+		EndpointClientTestA client = new EndpointClientTestA(context);
+		byte[] whole = new byte[]{0, 1, 2, 3, 4, 5};
+
+		client.onWebSocketBinary(whole, 0, whole.length);
+		Assert.assertSame(whole, client.lastReceivedBinary);
+
+		client.onWebSocketBinary(whole, 2, 3);
+		Assert.assertArrayEquals(new byte[]{2, 3, 4}, client.lastReceivedBinary);
+	}
+
+	@Test
+	public void testBinarySliceToBufferCallback() {
+		ByteBuffer[] received = new ByteBuffer[1];
+		OctaneWSEndpointClient client = new OctaneWSEndpointClient(context) {
+			@Override
+			public void onBinaryMessage(ByteBuffer message) {
+				received[0] = message;
+			}
+		};
+		byte[] whole = new byte[]{0, 1, 2, 3, 4, 5};
+
+		client.onWebSocketBinary(whole, 2, 3);
+		Assert.assertTrue(received[0].isReadOnly());
+		Assert.assertEquals(3, received[0].remaining());
+		Assert.assertEquals(2, received[0].get(0));
+		Assert.assertEquals(4, received[0].get(2));
+
+		whole[3] = 33;
+		Assert.assertEquals(33, received[0].get(1));
+	}
+
+	@Test
+	public void testCloseOfNotConnectedSessionNotReported() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		OctaneWSClientContext metricsContext = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.setMetrics(new OctaneWSMetrics() {
+					@Override
+					public void onConnected() {
+						events.add("connected");
+					}
+
+					@Override
+					public void onClosed(int statusCode) {
+						events.add("closed");
+					}
+				})
+				.build();
+		EndpointClientTestA client = new EndpointClientTestA(metricsContext);
+		client.stop();
+
+		//  session opened after the stop is closed right away, neither its open nor its close are reported
+		Session lateSession = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class}, (proxy, method, args) -> null);
+		client.onWebSocketConnect(lateSession);
+		client.onWebSocketClose(1000, "client requested to close (by hosting application)");
+		Assert.assertTrue(events.isEmpty());
+	}
+}
@@ -2,10 +2,16 @@ package com.microfocus.octane.websocket;
 
 import com.microfocus.octane.websocket.clients.EndpointClientTestA;
 import com.microfocus.octane.websocket.exceptions.OctaneWSAuthException;
+import com.microfocus.octane.websocket.jackson.OctaneWSJacksonCodec;
 import com.microfocus.octane.websocket.simulator.TestWebSocketsSimulator;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 import org.eclipse.jetty.websocket.server.JettyWebSocketServlet;
 import org.eclipse.jetty.websocket.server.JettyWebSocketServletFactory;
@@ -16,13 +22,27 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class OctaneWSServiceE2ETest {
 	private static final Logger logger = LoggerFactory.getLogger(OctaneWSServiceE2ETest.class);
@@ -113,6 +133,579 @@ public class OctaneWSServiceE2ETest {
 		Assert.assertNull(client.lastReceivedString);
 	}
 
+	@Test
+	public void testInteropAsyncInit() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		Session session = OctaneWSClientService.getInstance().initClientAsync(client).get(5, TimeUnit.SECONDS);
+		Assert.assertTrue(session.isOpen());
+
+		client.lastReceivedString = null;
+		client.sendString("some async text");
+		WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedString);
+		Assert.assertEquals("some async text", client.lastReceivedString);
+
+		client.lastReceivedString = null;
+		client.sendStringAsync("first").get(3, TimeUnit.SECONDS);
+		client.sendStringAsync("second").get(3, TimeUnit.SECONDS);
+		WSTestsUtils.waitAtMostFor(3000, () -> "second".equals(client.lastReceivedString) ? true : null);
+		Assert.assertEquals(0, client.getOutboundQueueDepth());
+
+		client.stop();
+	}
+
+	@Test
+	public void testPingRoundTrip() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		Assert.assertEquals(-1, client.getLastPingRoundTripNanos());
+		OctaneWSClientService.getInstance().initClient(client);
+
+		WSTestsUtils.waitAtMostFor(3000, () -> client.getLastPingRoundTripNanos() >= 0 ? true : null);
+		Assert.assertTrue(client.getLastPingRoundTripNanos() >= 0);
+
+		client.stop();
+	}
+
+	@Test
+	public void testStateTransitions() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setReconnectPolicy(OctaneWSReconnectPolicy.builder()
+						.setInitialDelay(100)
+						.build())
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		List<String> transitions = new CopyOnWriteArrayList<>();
+		client.addStateListener((c, from, to) -> transitions.add(from + "->" + to));
+		Assert.assertEquals(OctaneWSConnectionState.CLOSED, client.getState());
+
+		Session session = OctaneWSClientService.getInstance().initClientAsync(client).get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, client.getState());
+
+		//  session lost (not by the client's stop) is reconnected
+		session.disconnect();
+		WSTestsUtils.waitAtMostFor(5000, () -> transitions.contains("RECONNECTING->OPEN") ? true : null);
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, client.getState());
+		client.sendString("some text after reconnect");
+
+		client.stop();
+		WSTestsUtils.waitAtMostFor(3000, () -> client.getState() == OctaneWSConnectionState.CLOSED ? true : null);
+		Assert.assertEquals(Arrays.asList(
+				"CLOSED->CONNECTING",
+				"CONNECTING->OPEN",
+				"OPEN->RECONNECTING",
+				"RECONNECTING->OPEN",
+				"OPEN->CLOSING",
+				"CLOSING->CLOSED"), transitions);
+	}
+
+	@Test
+	public void testReconnectNotBoundToKeepAlive() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setKeepAliveInterval(60000)
+				.setReconnectPolicy(OctaneWSReconnectPolicy.builder()
+						.setInitialDelay(100)
+						.build())
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		List<String> transitions = new CopyOnWriteArrayList<>();
+		client.addStateListener((c, from, to) -> transitions.add(from + "->" + to));
+		Session session = OctaneWSClientService.getInstance().initClientAsync(client).get(5, TimeUnit.SECONDS);
+
+		//  reconnect attempt is scheduled at the (jittered) initial delay, way before the next keep alive round
+		session.disconnect();
+		WSTestsUtils.waitAtMostFor(3000, () -> transitions.contains("RECONNECTING->OPEN") ? true : null);
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, client.getState());
+
+		client.stop();
+	}
+
+	@Test
+	public void testCompression() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setCompression(OctaneWSCompression.builder()
+						.setClientMaxWindowBits(12)
+						.setClientNoContextTakeover(true)
+						.build())
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		Session session = OctaneWSClientService.getInstance().initClientAsync(client).get(5, TimeUnit.SECONDS);
+		Assert.assertTrue(session.getUpgradeResponse().getExtensions().stream().anyMatch(e -> "permessage-deflate".equals(e.getName())));
+
+		StringBuilder bigMessage = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			bigMessage.append("{\"event\":\"compressible\",\"index\":").append(i).append('}');
+		}
+		client.lastReceivedString = null;
+		client.sendString(bigMessage.toString());
+		WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedString);
+		Assert.assertEquals(bigMessage.toString(), client.lastReceivedString);
+
+		client.stop();
+	}
+
+	@Test
+	public void testIsolatedService() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		OctaneWSClientService isolated = OctaneWSClientService.create("e2e-isolated", OctaneWSClientServiceConfig.builder()
+				.setMaxThreads(16)
+				.setKeepAliveThreads(1)
+				.build());
+		try {
+			EndpointClientTestA client = new EndpointClientTestA(contextA);
+			isolated.initClient(client);
+
+			client.lastReceivedString = null;
+			client.sendString("some isolated text");
+			WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedString);
+			Assert.assertEquals("some isolated text", client.lastReceivedString);
+
+			client.stop();
+		} finally {
+			isolated.stop();
+		}
+	}
+
+	@Test
+	public void testServiceConfigLimits() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		List<Integer> closeCodes = new CopyOnWriteArrayList<>();
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setMetrics(new OctaneWSMetrics() {
+					@Override
+					public void onClosed(int statusCode) {
+						closeCodes.add(statusCode);
+					}
+				})
+				.build();
+
+		OctaneWSClientService isolated = OctaneWSClientService.create("e2e-limits", OctaneWSClientServiceConfig.builder()
+				.setMaxTextMessageSize(1024)
+				.build());
+		try {
+			EndpointClientTestA client = new EndpointClientTestA(contextA);
+			isolated.initClient(client);
+
+			client.lastReceivedString = null;
+			client.sendString("some small text");
+			WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedString);
+			Assert.assertEquals("some small text", client.lastReceivedString);
+
+			//  echo of the message larger than the configured max text message size is rejected by the client's transport, closing the session
+			StringBuilder bigMessage = new StringBuilder();
+			for (int i = 0; i < 2048; i++) {
+				bigMessage.append('a');
+			}
+			client.sendString(bigMessage.toString());
+			WSTestsUtils.waitAtMostFor(3000, () -> closeCodes.contains(StatusCode.MESSAGE_TOO_LARGE) ? true : null);
+			Assert.assertEquals("some small text", client.lastReceivedString);
+
+			client.stop();
+		} finally {
+			isolated.stop();
+		}
+	}
+
+	@Test
+	public void testMultiplexer() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		OctaneWSMultiplexer multiplexer = new OctaneWSMultiplexer(contextA, message -> message.contains(":") ? message.substring(0, message.indexOf(':')) : null);
+		List<String> receivedA = new CopyOnWriteArrayList<>();
+		List<String> receivedB = new CopyOnWriteArrayList<>();
+		List<String> receivedDefault = new CopyOnWriteArrayList<>();
+		OctaneWSSubscription subscriptionA = multiplexer.subscribe("a", receivedA::add);
+		multiplexer.subscribe("b", receivedB::add);
+		multiplexer.setDefaultSubscriber(receivedDefault::add);
+		OctaneWSClientService.getInstance().initClient(multiplexer);
+
+		multiplexer.sendString("a:1");
+		multiplexer.sendString("b:2");
+		multiplexer.sendString("no routing key");
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedA.size() == 1 && receivedB.size() == 1 && receivedDefault.size() == 1 ? true : null);
+		Assert.assertEquals("a:1", receivedA.get(0));
+		Assert.assertEquals("b:2", receivedB.get(0));
+		Assert.assertEquals("no routing key", receivedDefault.get(0));
+
+		subscriptionA.cancel();
+		Assert.assertEquals(1, multiplexer.getRoutingKeysCount());
+		multiplexer.sendString("a:3");
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedDefault.size() == 2 ? true : null);
+		Assert.assertEquals("a:3", receivedDefault.get(1));
+		Assert.assertEquals(1, receivedA.size());
+
+		multiplexer.stop();
+	}
+
+	@Test
+	public void testSharedMultiplexer() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+		OctaneWSClientContext contextB = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+		Function<String, String> routingKeyExtractor = message -> message.contains(":") ? message.substring(0, message.indexOf(':')) : null;
+
+		//  consumers not knowing of each other share one multiplexer (session) of the same endpoint and credentials
+		OctaneWSMultiplexer consumerA = OctaneWSClientService.getInstance().multiplexer(contextA, routingKeyExtractor);
+		OctaneWSMultiplexer consumerB = OctaneWSClientService.getInstance().multiplexer(contextB, routingKeyExtractor);
+		Assert.assertSame(consumerA, consumerB);
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, consumerA.getState());
+
+		List<String> receivedB = new CopyOnWriteArrayList<>();
+		OctaneWSSubscription subscriptionB = consumerB.subscribe("b", receivedB::add);
+
+		//  first release keeps the session for the other acquirer
+		consumerA.stop();
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, consumerB.getState());
+		consumerB.sendString("b:1");
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedB.isEmpty() ? null : true);
+		Assert.assertEquals("b:1", receivedB.get(0));
+
+		//  last release stops it, the next acquisition gets a new one
+		subscriptionB.cancel();
+		consumerB.stop();
+		WSTestsUtils.waitAtMostFor(3000, () -> consumerB.getState() == OctaneWSConnectionState.CLOSED ? true : null);
+		OctaneWSMultiplexer consumerC = OctaneWSClientService.getInstance().multiplexer(contextA, routingKeyExtractor);
+		Assert.assertNotSame(consumerA, consumerC);
+		Assert.assertEquals(OctaneWSConnectionState.OPEN, consumerC.getState());
+		consumerC.stop();
+	}
+
+	@Test
+	public void testOutboundBatching() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setOutboundBatchSize(1024)
+				.setOutboundBatchDelay(500)
+				.build();
+
+		List<String> received = new CopyOnWriteArrayList<>();
+		OctaneWSEndpointClient client = new OctaneWSEndpointClient(contextA) {
+			@Override
+			public void onStringMessage(String message) {
+				received.add(message);
+			}
+		};
+		OctaneWSClientService.getInstance().initClient(client);
+
+		//  batched messages preserve the order
+		List<String> sent = new ArrayList<>();
+		CompletableFuture<?>[] promises = new CompletableFuture<?>[200];
+		for (int i = 0; i < promises.length; i++) {
+			sent.add("status " + i);
+			promises[i] = client.sendStringAsync("status " + i);
+		}
+		CompletableFuture.allOf(promises).get(3, TimeUnit.SECONDS);
+		WSTestsUtils.waitAtMostFor(3000, () -> received.size() == sent.size() ? true : null);
+		Assert.assertEquals(sent, received);
+
+		//  single message is held back waiting for more messages, flushed once the batch delay elapses
+		long started = System.nanoTime();
+		client.sendStringAsync("lonely status").get(3, TimeUnit.SECONDS);
+		Assert.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(500));
+		WSTestsUtils.waitAtMostFor(3000, () -> received.size() == sent.size() + 1 ? true : null);
+		Assert.assertEquals("lonely status", received.get(sent.size()));
+
+		client.stop();
+
+		//  batch reaching its size is flushed right away, without waiting for the (long) batch delay
+		OctaneWSClientContext contextB = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setOutboundBatchSize(64)
+				.setOutboundBatchDelay(60000)
+				.build();
+
+		List<String> receivedB = new CopyOnWriteArrayList<>();
+		OctaneWSEndpointClient clientB = new OctaneWSEndpointClient(contextB) {
+			@Override
+			public void onStringMessage(String message) {
+				receivedB.add(message);
+			}
+		};
+		Session sessionB = OctaneWSClientService.getInstance().initClientAsync(clientB).get(5, TimeUnit.SECONDS);
+
+		List<String> sentB = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			//  8 messages of 8 bytes each reach the batch size of 64 bytes
+			sentB.add("status " + i);
+			clientB.sendStringAsync("status " + i);
+		}
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedB.size() == sentB.size() ? true : null);
+		Assert.assertEquals(sentB, receivedB);
+
+		//  while the last message is held back for the (long) batch delay, the session's batch mode is off, so the blocking sends bypass the batch
+		clientB.sendStringAsync("status 8");
+		clientB.sendStringAsync("status 9");
+		WSTestsUtils.delay(300);
+		Assert.assertEquals(BatchMode.OFF, sessionB.getRemote().getBatchMode());
+		clientB.sendString("blocking status");
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedB.contains("blocking status") ? true : null);
+
+		clientB.stop();
+	}
+
+	@Test
+	public void testSpool() {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setSpool(OctaneWSSpool.builder()
+						.setMaxBytes(40)
+						.build())
+				.build();
+
+		List<String> received = new CopyOnWriteArrayList<>();
+		OctaneWSEndpointClient client = new OctaneWSEndpointClient(contextA) {
+			@Override
+			public void onStringMessage(String message) {
+				received.add(message);
+			}
+		};
+
+		//  sent while not connected: spooled, the oldest ones dropped due to the spool size
+		for (int i = 0; i < 10; i++) {
+			client.sendString("msg-" + i);
+		}
+		Assert.assertEquals(4, client.getSpoolSize());
+
+		OctaneWSClientService.getInstance().initClient(client);
+		client.sendString("msg-10");
+		WSTestsUtils.waitAtMostFor(3000, () -> received.size() == 5 ? true : null);
+		Assert.assertEquals(Arrays.asList("msg-6", "msg-7", "msg-8", "msg-9", "msg-10"), received);
+		Assert.assertEquals(0, client.getSpoolSize());
+
+		client.stop();
+	}
+
+	@Test
+	public void testPartialMessages() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.setPartialMessages(true)
+				.build();
+
+		StringBuilder receivedParts = new StringBuilder();
+		String[] receivedMessage = new String[1];
+		OctaneWSEndpointClient client = new OctaneWSEndpointClient(contextA) {
+			@Override
+			public void onStringMessagePart(String part, boolean last) {
+				receivedParts.append(part);
+				if (last) {
+					receivedMessage[0] = receivedParts.toString();
+				}
+			}
+		};
+		OctaneWSClientService.getInstance().initClient(client);
+
+		StringBuilder bigMessage = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			bigMessage.append("part ").append(i).append(';');
+		}
+		client.sendString(bigMessage.toString());
+		WSTestsUtils.waitAtMostFor(3000, () -> receivedMessage[0]);
+		Assert.assertEquals(bigMessage.toString(), receivedMessage[0]);
+
+		client.stop();
+	}
+
+	@Test
+	public void testBinaryBuffers() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		EndpointClientTestA client = new EndpointClientTestA(contextA);
+		OctaneWSClientService.getInstance().initClient(client);
+
+		//  slice of an array
+		byte[] array = new byte[]{0, 1, 2, 3, 4, 5, 6, 7};
+		client.lastReceivedBinary = null;
+		client.sendBinary(array, 2, 4);
+		WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedBinary);
+		Assert.assertArrayEquals(new byte[]{2, 3, 4, 5}, client.lastReceivedBinary);
+
+		//  direct buffer, position and limit left intact
+		ByteBuffer direct = ByteBuffer.allocateDirect(16);
+		direct.put(new byte[]{9, 8, 7}).flip();
+		client.lastReceivedBinary = null;
+		client.sendBinary(direct);
+		WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedBinary);
+		Assert.assertArrayEquals(new byte[]{9, 8, 7}, client.lastReceivedBinary);
+		Assert.assertEquals(0, direct.position());
+		Assert.assertEquals(3, direct.limit());
+
+		//  pooled buffers, released once written
+		OctaneWSBufferPool pool = OctaneWSClientService.getInstance().getBufferPool();
+		List<ByteBuffer> released = new CopyOnWriteArrayList<>();
+		List<CompletableFuture<Void>> promises = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ByteBuffer pooled = pool.acquire(64, true);
+			Assert.assertTrue(pooled.capacity() >= 64);
+			pooled.put((byte) i).flip();
+			promises.add(client.sendBinaryAsync(pooled, buffer -> {
+				released.add(buffer);
+				pool.release(buffer);
+			}));
+		}
+		CompletableFuture.allOf(promises.toArray(new CompletableFuture<?>[0])).get(3, TimeUnit.SECONDS);
+		Assert.assertEquals(10, released.size());
+		WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedBinary != null && client.lastReceivedBinary.length == 1 && client.lastReceivedBinary[0] == 9 ? true : null);
+
+		client.stop();
+	}
+
+	@Test
+	public void testCodec() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext contextA = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + E2E_SERVER_PORT + "/messaging/test?param-a=a&param-b=b")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		List<CodecTestMessage> jsonReceived = new CopyOnWriteArrayList<>();
+		List<Exception> jsonFailures = new CopyOnWriteArrayList<>();
+		OctaneWSCodecEndpointClient<CodecTestMessage> jsonClient = new OctaneWSCodecEndpointClient<CodecTestMessage>(contextA, OctaneWSJacksonCodec.json(CodecTestMessage.class)) {
+			@Override
+			public void onMessage(CodecTestMessage message) {
+				jsonReceived.add(message);
+			}
+
+			@Override
+			public void onDecodeFailure(Exception failure) {
+				jsonFailures.add(failure);
+			}
+		};
+		List<CodecTestMessage> cborReceived = new CopyOnWriteArrayList<>();
+		OctaneWSCodecEndpointClient<CodecTestMessage> cborClient = new OctaneWSCodecEndpointClient<CodecTestMessage>(contextA, OctaneWSJacksonCodec.cbor(CodecTestMessage.class)) {
+			@Override
+			public void onMessage(CodecTestMessage message) {
+				cborReceived.add(message);
+			}
+		};
+		OctaneWSClientService.getInstance().initClient(jsonClient);
+		OctaneWSClientService.getInstance().initClient(cborClient);
+
+		//  JSON over string messages, and over binary messages decoded straight from the bytes
+		jsonClient.send(new CodecTestMessage("json", 1));
+		jsonClient.sendAsync(new CodecTestMessage("json-async", 2)).get(3, TimeUnit.SECONDS);
+		jsonClient.sendBinary("{\"name\":\"json-binary\",\"value\":3}".getBytes(StandardCharsets.UTF_8));
+		WSTestsUtils.waitAtMostFor(3000, () -> jsonReceived.size() == 3 ? true : null);
+		Assert.assertEquals("json", jsonReceived.get(0).name);
+		Assert.assertEquals(1, jsonReceived.get(0).value);
+		Assert.assertEquals("json-async", jsonReceived.get(1).name);
+		Assert.assertEquals("json-binary", jsonReceived.get(2).name);
+		Assert.assertEquals(3, jsonReceived.get(2).value);
+
+		//  malformed message is reported and dropped, the session keeps working
+		jsonClient.sendString("not a json");
+		WSTestsUtils.waitAtMostFor(3000, () -> jsonFailures.isEmpty() ? null : true);
+		jsonClient.send(new CodecTestMessage("json-after-failure", 4));
+		WSTestsUtils.waitAtMostFor(3000, () -> jsonReceived.size() == 4 ? true : null);
+		Assert.assertEquals("json-after-failure", jsonReceived.get(3).name);
+
+		//  CBOR over binary messages
+		cborClient.send(new CodecTestMessage("cbor", 5));
+		cborClient.sendAsync(new CodecTestMessage("cbor-async", 6)).get(3, TimeUnit.SECONDS);
+		WSTestsUtils.waitAtMostFor(3000, () -> cborReceived.size() == 2 ? true : null);
+		Assert.assertEquals("cbor", cborReceived.get(0).name);
+		Assert.assertEquals(5, cborReceived.get(0).value);
+		Assert.assertEquals("cbor-async", cborReceived.get(1).name);
+		Assert.assertEquals(6, cborReceived.get(1).value);
+
+		jsonClient.stop();
+		cborClient.stop();
+	}
+
 	@Test
 	public void serverDisconnectionTest() throws Exception {
 		E2ETestHttpServlet.expectedClient = "login_client";
@@ -149,9 +742,83 @@ public class OctaneWSServiceE2ETest {
 		client.stop();
 	}
 
+	@Test
+	public void testTls() throws Exception {
+		E2ETestHttpServlet.expectedClient = "login_client";
+		E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		//  self signed certificate of localhost, generated per run
+		File keyStore = File.createTempFile("e2e-tls", ".p12");
+		Assert.assertTrue(keyStore.delete());
+		Process keytool = new ProcessBuilder(
+				System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool",
+				"-genkeypair", "-alias", "e2e", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+				"-dname", "CN=localhost", "-ext", "SAN=dns:localhost",
+				"-storetype", "PKCS12", "-keystore", keyStore.getAbsolutePath(), "-storepass", "e2e_secret", "-keypass", "e2e_secret")
+				.inheritIO()
+				.start();
+		Assert.assertEquals(0, keytool.waitFor());
+
+		SslContextFactory.Server serverSsl = new SslContextFactory.Server();
+		serverSsl.setKeyStorePath(keyStore.getAbsolutePath());
+		serverSsl.setKeyStorePassword("e2e_secret");
+		serverSsl.setKeyStoreType("PKCS12");
+		Server tlsServer = TestWebSocketsSimulator.startWebsocketServer(0, E2ETestHttpServlet.class, E2ETestWSServlet.class, serverSsl);
+		int tlsPort = ((ServerConnector) tlsServer.getConnectors()[0]).getLocalPort();
+
+		KeyStore trustStore = KeyStore.getInstance("PKCS12");
+		try (InputStream is = new FileInputStream(keyStore)) {
+			trustStore.load(is, "e2e_secret".toCharArray());
+		}
+		TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init(trustStore);
+		SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+		OctaneWSTls tls = OctaneWSTls.builder()
+				.setSslContext(sslContext)
+				.setApplicationProtocols("http/1.1")
+				.build();
+
+		OctaneWSClientService isolated = OctaneWSClientService.create("e2e-tls", OctaneWSClientServiceConfig.DEFAULT);
+		try {
+			for (int i = 0; i < 2; i++) {
+				OctaneWSClientContext context = OctaneWSClientContext.builder()
+						.setEndpointUrl("wss://localhost:" + tlsPort + "/messaging/test")
+						.setClient("login_client")
+						.setSecret("login_secret")
+						.setTls(tls)
+						.build();
+				EndpointClientTestA client = new EndpointClientTestA(context);
+				isolated.initClient(client);
+
+				client.lastReceivedString = null;
+				client.sendString("some secured text");
+				WSTestsUtils.waitAtMostFor(3000, () -> client.lastReceivedString);
+				Assert.assertEquals("some secured text", client.lastReceivedString);
+				client.stop();
+			}
+
+			//  both clients were served by the same transport, thus the TLS session has been cached for the resumption
+			Assert.assertSame(isolated.getWebSocketClient(OctaneWSClientContext.builder()
+					.setEndpointUrl("wss://localhost:" + tlsPort + "/messaging/test")
+					.setClient("login_client")
+					.setTls(tls)
+					.build()), isolated.getWebSocketClient(OctaneWSClientContext.builder()
+					.setEndpointUrl("wss://localhost:" + tlsPort + "/messaging/other")
+					.setClient("other_client")
+					.setTls(tls)
+					.build()));
+			Assert.assertTrue(sslContext.getClientSessionContext().getIds().hasMoreElements());
+		} finally {
+			isolated.stop();
+			tlsServer.stop();
+			Assert.assertTrue(keyStore.delete());
+		}
+	}
+
 	public static final class E2ETestHttpServlet extends HttpServlet {
-		private static String expectedClient;
-		private static String expectedSecret;
+		static String expectedClient;
+		static String expectedSecret;
 
 		@Override
 		protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -161,7 +828,7 @@ public class OctaneWSServiceE2ETest {
 				String contentLine = request.getReader().readLine();
 				if (contentLine.contains(expectedClient) && contentLine.contains(expectedSecret)) {
 					resp.setStatus(HttpStatus.OK_200);
-					resp.setHeader("Set-Cookie", "NON_RELEVANT_COOKIE=non_relevant_data;LWSSO_COOKIE_KEY=some_fake_token");
+					resp.setHeader("Set-Cookie", "NON_RELEVANT_COOKIE=non_relevant_data;LWSSO_COOKIE_KEY=some_fake_token; Path=/; Max-Age=3600");
 				} else {
 					resp.setHeader("Set-Cookie", "NON_RELEVANT_COOKIE=non_relevant_data");
 					resp.setStatus(HttpStatus.UNAUTHORIZED_401);
@@ -176,6 +843,19 @@ public class OctaneWSServiceE2ETest {
 	}
 
 
+	public static final class CodecTestMessage {
+		public String name;
+		public int value;
+
+		public CodecTestMessage() {
+		}
+
+		CodecTestMessage(String name, int value) {
+			this.name = name;
+			this.value = value;
+		}
+	}
+
 	public static final class E2ETestWSServlet extends JettyWebSocketServlet {
 
 		@Override
@@ -1,8 +1,20 @@
 package com.microfocus.octane.websocket;
 
 import com.microfocus.octane.websocket.clients.EndpointClientTestA;
+import com.microfocus.octane.websocket.jackson.OctaneWSJacksonCodec;
+import org.junit.Assert;
 import org.junit.Test;
 
+import javax.net.ssl.SSLContext;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 public class OctaneWSServiceNegativeTest {
 	private final OctaneWSClientService octaneWSClientService = OctaneWSClientService.getInstance();
 
@@ -11,6 +23,11 @@ public class OctaneWSServiceNegativeTest {
 		octaneWSClientService.initClient(null);
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void testA2() {
+		octaneWSClientService.initClientAsync(null);
+	}
+
 	//	BUILD WITH MISSING DATA
 	@Test(expected = IllegalStateException.class)
 	public void testB1() {
@@ -74,6 +91,60 @@ public class OctaneWSServiceNegativeTest {
 				.setSecret(null);
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void testC6() {
+		OctaneWSClientContext.builder()
+				.setOutboundQueueCapacity(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC7() {
+		OctaneWSClientContext.builder()
+				.setOutboundOverflowPolicy(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC8() {
+		OctaneWSClientContext.builder()
+				.setMaxMissedPongs(-1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC9() {
+		OctaneWSClientContext.builder()
+				.setKeepAliveInterval(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC10() {
+		OctaneWSCompression.builder()
+				.setClientMaxWindowBits(7);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testC11() {
+		OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setPartialMessages(true)
+				.setInboundDispatch(OctaneWSInboundDispatch.builder()
+						.setExecutor(Runnable::run)
+						.build())
+				.build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC12() {
+		OctaneWSClientContext.builder()
+				.setOutboundBatchSize(-1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testC13() {
+		OctaneWSSpool.builder()
+				.setOverflowPolicy(OctaneWSOverflowPolicy.BLOCK);
+	}
+
 	//  USE AFTER BUILT
 	@Test(expected = IllegalStateException.class)
 	public void testD1() {
@@ -185,4 +256,250 @@ public class OctaneWSServiceNegativeTest {
 		}
 		client.sendString("some text");
 	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testF5() throws Throwable {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		try {
+			client.sendStringAsync("some text").get(3, TimeUnit.SECONDS);
+		} catch (ExecutionException ee) {
+			throw ee.getCause();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testF6() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		client.addStateListener(null);
+	}
+
+	//  SERVICE CONFIGURATION
+	@Test(expected = IllegalArgumentException.class)
+	public void testG1() {
+		OctaneWSClientService.configure(null);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testG2() {
+		OctaneWSClientService.getInstance();
+		OctaneWSClientService.configure(OctaneWSClientServiceConfig.DEFAULT);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testG3() {
+		OctaneWSClientServiceConfig.builder()
+				.setMaxThreads(-1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testG4() {
+		OctaneWSClientServiceConfig.builder()
+				.setMinThreads(10)
+				.setMaxThreads(5)
+				.build();
+	}
+
+	//  SERVICE INSTANCES
+	@Test(expected = IllegalArgumentException.class)
+	public void testH1() {
+		OctaneWSClientService.create(null, OctaneWSClientServiceConfig.DEFAULT);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testH2() {
+		OctaneWSClientService.getInstance().stop();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testH3() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		try {
+			OctaneWSClientService.getInstance().initClient(client);
+		} catch (Exception e) {
+			//
+		}
+
+		OctaneWSClientService isolated = OctaneWSClientService.create("negative-test", OctaneWSClientServiceConfig.DEFAULT);
+		try {
+			isolated.initClient(client);
+		} finally {
+			isolated.stop();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testH4() {
+		OctaneWSClientService.getInstance().multiplexer(null, message -> null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testH5() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSClientService.getInstance().multiplexer(context, null);
+	}
+
+	@Test
+	public void testH6() throws Exception {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:1/messaging/test")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		//  failure to start the shared multiplexer is thrown to all its concurrent acquirers, none is left with a dead one
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<OctaneWSMultiplexer>> acquisitions = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				acquisitions.add(executor.submit(() -> OctaneWSClientService.getInstance().multiplexer(context, message -> null)));
+			}
+			for (Future<OctaneWSMultiplexer> acquisition : acquisitions) {
+				try {
+					acquisition.get(10, TimeUnit.SECONDS);
+					Assert.fail("acquisition of the multiplexer failed to start expected to fail");
+				} catch (ExecutionException ee) {
+					Assert.assertTrue(ee.getCause() instanceof RuntimeException);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//  TLS CONFIGURATION
+	@Test(expected = IllegalArgumentException.class)
+	public void testI1() {
+		OctaneWSTls.builder()
+				.setIncludeProtocols();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testI2() throws Exception {
+		OctaneWSTls.builder()
+				.setSslContext(SSLContext.getDefault())
+				.setTrustAll(true)
+				.build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testI3() {
+		OctaneWSClientContext.builder()
+				.setTls(null);
+	}
+
+	//  MESSAGES CODEC
+	@Test(expected = IllegalArgumentException.class)
+	public void testJ1() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		new OctaneWSCodecEndpointClient<String>(context, null) {
+			@Override
+			public void onMessage(String message) {
+			}
+		};
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testJ2() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.setPartialMessages(true)
+				.build();
+
+		new OctaneWSCodecEndpointClient<String>(context, OctaneWSJacksonCodec.json(String.class)) {
+			@Override
+			public void onMessage(String message) {
+			}
+		};
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testJ3() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSCodecEndpointClient<String> client = new OctaneWSCodecEndpointClient<String>(context, OctaneWSJacksonCodec.json(String.class)) {
+			@Override
+			public void onMessage(String message) {
+			}
+		};
+		client.sendAsync(null);
+	}
+
+	//  BINARY SENDS
+	@Test(expected = IllegalArgumentException.class)
+	public void testK1() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		client.sendBinaryAsync(new byte[8], 4, 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testK2() {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		client.sendBinaryAsync(ByteBuffer.allocate(8), null);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testK3() throws Throwable {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSecret("some_secret")
+				.build();
+
+		OctaneWSEndpointClient client = new EndpointClientTestA(context);
+		ByteBuffer message = ByteBuffer.allocateDirect(8);
+		ByteBuffer[] released = new ByteBuffer[1];
+		try {
+			client.sendBinaryAsync(message, buffer -> released[0] = buffer).get(3, TimeUnit.SECONDS);
+		} catch (ExecutionException ee) {
+			//  failed send releases the buffer as well
+			Assert.assertSame(message, released[0]);
+			throw ee.getCause();
+		}
+	}
 }
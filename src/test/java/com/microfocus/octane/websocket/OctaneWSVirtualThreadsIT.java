@@ -0,0 +1,97 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.simulator.TestWebSocketsSimulator;
+import org.eclipse.jetty.server.Server;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * runs (failsafe) on the JDK 21 toolchain against the packaged multi-release JAR, thus covering the META-INF/versions/21 classes
+ */
+public class OctaneWSVirtualThreadsIT {
+	private static int IT_SERVER_PORT = 3334;
+	private static Server testServer;
+
+	@BeforeClass
+	public static void startTestServer() throws Exception {
+		String portParam = System.getProperty("octane.websockets.client.it.port");
+		testServer = TestWebSocketsSimulator.startWebsocketServer(
+				portParam != null && !portParam.isEmpty() ? IT_SERVER_PORT = Integer.parseInt(portParam) : IT_SERVER_PORT,
+				OctaneWSServiceE2ETest.E2ETestHttpServlet.class,
+				OctaneWSServiceE2ETest.E2ETestWSServlet.class);
+	}
+
+	@AfterClass
+	public static void stopTestServer() throws Exception {
+		testServer.stop();
+	}
+
+	@Test
+	public void testVersionedClassesInUse() {
+		ExecutorService executor = VirtualThreads.newExecutor("it-");
+		Assert.assertNotNull("JDK 21 version of VirtualThreads is expected to be loaded from the multi-release JAR", executor);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testCallbacksOnVirtualThreads() throws Exception {
+		Thread callbackThread = roundTripCallbackThread(true);
+		Assert.assertTrue(isVirtual(callbackThread));
+		Assert.assertTrue(callbackThread.getName().startsWith("octane-ws-client-it-virtual-threads-virtual-"));
+	}
+
+	@Test
+	public void testCallbacksOnVirtualThreadsByDefault() throws Exception {
+		Thread callbackThread = roundTripCallbackThread("it-default", OctaneWSClientServiceConfig.DEFAULT);
+		Assert.assertTrue(isVirtual(callbackThread));
+	}
+
+	@Test
+	public void testCallbacksOnPlatformThreadsWhenDisabled() throws Exception {
+		Assert.assertFalse(isVirtual(roundTripCallbackThread(false)));
+	}
+
+	private static Thread roundTripCallbackThread(boolean virtualThreads) {
+		return roundTripCallbackThread(virtualThreads ? "it-virtual-threads" : "it-platform-threads", OctaneWSClientServiceConfig.builder()
+				.setVirtualThreads(virtualThreads)
+				.build());
+	}
+
+	private static Thread roundTripCallbackThread(String serviceName, OctaneWSClientServiceConfig config) {
+		OctaneWSServiceE2ETest.E2ETestHttpServlet.expectedClient = "login_client";
+		OctaneWSServiceE2ETest.E2ETestHttpServlet.expectedSecret = "login_secret";
+
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + IT_SERVER_PORT + "/messaging/test")
+				.setClient("login_client")
+				.setSecret("login_secret")
+				.build();
+
+		OctaneWSClientService service = OctaneWSClientService.create(serviceName, config);
+		try {
+			Thread[] callbackThread = new Thread[1];
+			OctaneWSEndpointClient client = new OctaneWSEndpointClient(context) {
+				@Override
+				public void onStringMessage(String message) {
+					callbackThread[0] = Thread.currentThread();
+				}
+			};
+			service.initClient(client);
+			client.sendString("some text");
+			WSTestsUtils.waitAtMostFor(3000, () -> callbackThread[0]);
+			client.stop();
+			return callbackThread[0];
+		} finally {
+			service.stop();
+		}
+	}
+
+	private static boolean isVirtual(Thread thread) throws Exception {
+		//  test sources are compiled for the baseline JDK, Thread.isVirtual (JDK 21+) is called reflectively
+		return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+	}
+}
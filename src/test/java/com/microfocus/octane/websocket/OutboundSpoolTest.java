@@ -0,0 +1,86 @@
+package com.microfocus.octane.websocket;
+
+import com.microfocus.octane.websocket.exceptions.OctaneWSException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OutboundSpoolTest {
+
+	@Test
+	public void testNotSpooledWhenWorkable() {
+		OutboundSpool spool = createSpool(OctaneWSSpool.builder().build());
+
+		Assert.assertFalse(spool.spoolIfNeeded(true, OutboundSpool.TEXT, bytes("direct")));
+		Assert.assertTrue(spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("spooled")));
+		//  once anything is spooled, the further messages are spooled too, to preserve the order
+		Assert.assertTrue(spool.spoolIfNeeded(true, OutboundSpool.TEXT, bytes("spooled too")));
+		Assert.assertEquals(2, spool.size());
+	}
+
+	@Test
+	public void testDropOldest() {
+		OutboundSpool spool = createSpool(OctaneWSSpool.builder()
+				.setMaxBytes(40)
+				.build());
+
+		for (int i = 0; i < 10; i++) {
+			spool.spoolIfNeeded(false, OutboundSpool.BINARY, bytes("msg-" + i));
+		}
+		Assert.assertEquals(4, spool.size());
+	}
+
+	@Test(expected = OctaneWSException.class)
+	public void testFailFast() {
+		OutboundSpool spool = createSpool(OctaneWSSpool.builder()
+				.setMaxMessages(2)
+				.setOverflowPolicy(OctaneWSOverflowPolicy.FAIL_FAST)
+				.build());
+
+		spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("a"));
+		spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("b"));
+		spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("c"));
+	}
+
+	@Test
+	public void testRestoredFromFile() throws Exception {
+		Path file = Files.createTempFile("octane-ws-spool", ".dat");
+		try {
+			OctaneWSSpool config = OctaneWSSpool.builder()
+					.setMaxBytes(1024)
+					.setFile(file)
+					.build();
+			OutboundSpool spool = createSpool(config);
+			spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("a"));
+			spool.spoolIfNeeded(false, OutboundSpool.TEXT, bytes("b"));
+			spool.flush();
+
+			Assert.assertEquals(2, createSpool(config).size());
+
+			//  spool of different size discards the content
+			Assert.assertEquals(0, createSpool(OctaneWSSpool.builder()
+					.setMaxBytes(2048)
+					.setFile(file)
+					.build()).size());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static OutboundSpool createSpool(OctaneWSSpool config) {
+		OctaneWSClientContext context = OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:8080")
+				.setClient("some_client")
+				.setSpool(config)
+				.build();
+		return new OutboundSpool(context, () -> null, () -> {
+		});
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+}
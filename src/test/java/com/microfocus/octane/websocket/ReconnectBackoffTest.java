@@ -0,0 +1,81 @@
+package com.microfocus.octane.websocket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReconnectBackoffTest {
+
+	@Test
+	public void testJitteredExponentialDelays() {
+		OctaneWSReconnectPolicy policy = OctaneWSReconnectPolicy.builder()
+				.setInitialDelay(100)
+				.setMaxDelay(1000)
+				.setCircuitBreakerThreshold(0)
+				.build();
+		ReconnectBackoff backoff = new ReconnectBackoff(policy);
+
+		long[] caps = new long[]{100, 200, 400, 800, 1000, 1000};
+		for (long cap : caps) {
+			long delay = backoff.onFailure(0);
+			Assert.assertTrue(delay >= 0 && delay <= cap);
+			Assert.assertFalse(backoff.isCircuitOpen(0));
+		}
+
+		//  success resets the growth, the next failure's delay is within the initial delay again
+		backoff.onSuccess();
+		Assert.assertEquals(0, backoff.getConsecutiveFailures());
+		Assert.assertTrue(backoff.onFailure(0) <= 100);
+		Assert.assertEquals(1, backoff.getConsecutiveFailures());
+	}
+
+	@Test
+	public void testJitteredFirstAttempt() {
+		OctaneWSReconnectPolicy policy = OctaneWSReconnectPolicy.builder()
+				.setInitialDelay(100)
+				.build();
+		ReconnectBackoff backoff = new ReconnectBackoff(policy);
+
+		boolean jittered = false;
+		for (int i = 0; i < 100; i++) {
+			long delay = backoff.onDisconnected();
+			Assert.assertTrue(delay >= 0 && delay <= 100);
+			Assert.assertFalse(backoff.isCircuitOpen(0));
+			jittered |= delay != 100 && delay != 0;
+		}
+		Assert.assertTrue(jittered);
+	}
+
+	@Test
+	public void testCircuitBreaker() {
+		OctaneWSReconnectPolicy policy = OctaneWSReconnectPolicy.builder()
+				.setInitialDelay(100)
+				.setMaxDelay(1000)
+				.setCircuitBreakerThreshold(3)
+				.setCircuitBreakerOpenDuration(5000)
+				.build();
+		ReconnectBackoff backoff = new ReconnectBackoff(policy);
+
+		backoff.onFailure(0);
+		backoff.onFailure(0);
+		Assert.assertFalse(backoff.isCircuitOpen(0));
+		Assert.assertEquals(5000, backoff.onFailure(0));
+		Assert.assertTrue(backoff.isCircuitOpen(4999));
+
+		//  half open - single probe, its failure re-opens the circuit
+		Assert.assertFalse(backoff.isCircuitOpen(5000));
+		Assert.assertEquals(5000, backoff.onFailure(5000));
+		Assert.assertTrue(backoff.isCircuitOpen(5001));
+
+		backoff.onSuccess();
+		Assert.assertFalse(backoff.isCircuitOpen(5001));
+		Assert.assertEquals(0, backoff.getConsecutiveFailures());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMaxDelayLessThanInitial() {
+		OctaneWSReconnectPolicy.builder()
+				.setInitialDelay(2000)
+				.setMaxDelay(1000)
+				.build();
+	}
+}
@@ -0,0 +1,41 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import com.microfocus.octane.websocket.OctaneWSClientContext;
+import com.microfocus.octane.websocket.OctaneWSEndpointClient;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Benchmarks endpoint client: completes the pending reply, if any, upon each received message
+ */
+final class BenchmarkClient extends OctaneWSEndpointClient {
+	private volatile CompletableFuture<Object> pendingReply;
+
+	BenchmarkClient(OctaneWSClientContext context) {
+		super(context);
+	}
+
+	CompletableFuture<Object> expectReply() {
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		pendingReply = result;
+		return result;
+	}
+
+	@Override
+	public void onBinaryMessage(byte[] message) {
+		complete(message);
+	}
+
+	@Override
+	public void onStringMessage(String message) {
+		complete(message);
+	}
+
+	private void complete(Object message) {
+		CompletableFuture<Object> reply = pendingReply;
+		if (reply != null) {
+			pendingReply = null;
+			reply.complete(message);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import com.microfocus.octane.websocket.OctaneWSClientContext;
+import com.microfocus.octane.websocket.OctaneWSClientService;
+import com.microfocus.octane.websocket.OctaneWSClientServiceConfig;
+import com.microfocus.octane.websocket.OctaneWSOverflowPolicy;
+import com.microfocus.octane.websocket.simulator.TestWebSocketsSimulator;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.server.JettyWebSocketServlet;
+import org.eclipse.jetty.websocket.server.JettyWebSocketServletFactory;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Shared benchmarks environment, one per trial
+ * - embedded server (see TestWebSocketsSimulator) on an ephemeral port: login always succeeds, WS endpoint either echoes the messages back ('?mode=echo') or swallows them
+ * - isolated client service, so that the benchmarks do not depend on (nor configure) the default instance
+ */
+@State(Scope.Benchmark)
+public class BenchmarkEnvironment {
+	static final String CLIENT = "benchmark_client";
+	static final String SECRET = "benchmark_secret";
+	static final int MAX_MESSAGE_SIZE = 1024 * 1024;
+
+	private Server server;
+	private int port;
+	OctaneWSClientService service;
+
+	@Setup
+	public void setUp() throws Exception {
+		server = TestWebSocketsSimulator.startWebsocketServer(0, BenchmarkHttpServlet.class, BenchmarkWSServlet.class);
+		port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+		service = OctaneWSClientService.create("benchmarks", OctaneWSClientServiceConfig.builder()
+				.setMaxTextMessageSize(MAX_MESSAGE_SIZE)
+				.setMaxBinaryMessageSize(MAX_MESSAGE_SIZE)
+				.build());
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		service.stop();
+		server.stop();
+	}
+
+	OctaneWSClientContext context(String client, boolean echo) {
+		return OctaneWSClientContext.builder()
+				.setEndpointUrl("ws://localhost:" + port + "/messaging/test?mode=" + (echo ? "echo" : "sink"))
+				.setClient(client)
+				.setSecret(SECRET)
+				.setOutboundOverflowPolicy(OctaneWSOverflowPolicy.BLOCK)
+				.build();
+	}
+
+	static String stringPayload(int size) {
+		StringBuilder result = new StringBuilder(size);
+		for (int i = 0; i < size; i++) {
+			result.append((char) ('a' + i % 26));
+		}
+		return result.toString();
+	}
+
+	static byte[] binaryPayload(int size) {
+		byte[] result = new byte[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = (byte) i;
+		}
+		return result;
+	}
+
+	public static final class BenchmarkHttpServlet extends HttpServlet {
+
+		@Override
+		protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			Request request = (Request) req;
+
+			if ("POST".equalsIgnoreCase(req.getMethod()) && "/authentication/sign_in".equals(request.getHttpURI().getPath())) {
+				resp.setStatus(HttpStatus.OK_200);
+				resp.setHeader("Set-Cookie", "LWSSO_COOKIE_KEY=benchmark_token; Path=/; Max-Age=3600");
+			} else {
+				resp.setStatus(HttpStatus.NOT_FOUND_404);
+			}
+			resp.flushBuffer();
+
+			request.setHandled(true);
+		}
+	}
+
+	public static final class BenchmarkWSServlet extends JettyWebSocketServlet {
+
+		@Override
+		public void configure(JettyWebSocketServletFactory webSocketServletFactory) {
+			webSocketServletFactory.setMaxTextMessageSize(MAX_MESSAGE_SIZE);
+			webSocketServletFactory.setMaxBinaryMessageSize(MAX_MESSAGE_SIZE);
+			webSocketServletFactory.setCreator((upgradeRequest, upgradeResponse) -> {
+				List<String> mode = upgradeRequest.getParameterMap().get("mode");
+				return new BenchmarkWSHandler(mode != null && mode.contains("echo"));
+			});
+		}
+	}
+
+	public static final class BenchmarkWSHandler extends WebSocketAdapter {
+		private final boolean echo;
+
+		private BenchmarkWSHandler(boolean echo) {
+			this.echo = echo;
+		}
+
+		@Override
+		public void onWebSocketBinary(byte[] payload, int offset, int len) {
+			if (echo) {
+				getSession().getRemote().sendBytes(ByteBuffer.wrap(payload, offset, len), WriteCallback.NOOP);
+			}
+		}
+
+		@Override
+		public void onWebSocketText(String message) {
+			if (echo) {
+				getSession().getRemote().sendString(message, WriteCallback.NOOP);
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microfocus.octane.websocket.jackson.OctaneWSJacksonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inbound message decoding cost, in process (no transport), nanoseconds per message
+ * - stringThenParse: the raw callbacks flow, message bytes decoded into String, then parsed by the consumer into a tree
+ * - jsonCodec / cborCodec: typed client flow, message decoded straight from the bytes into the target type
+ * - entries: number of entries in the message
+ * - garbage per message is reported when run with the GC profiler (-prof gc, on by default in the 'benchmarks' profile)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	@Param({"4", "64"})
+	public int entries;
+
+	private OctaneWSJacksonCodec<Event> jsonCodec;
+	private OctaneWSJacksonCodec<Event> cborCodec;
+	private byte[] jsonMessage;
+	private byte[] cborMessage;
+
+	@Setup
+	public void setUp() throws IOException {
+		jsonCodec = OctaneWSJacksonCodec.json(Event.class);
+		cborCodec = OctaneWSJacksonCodec.cbor(Event.class);
+		Event event = new Event();
+		event.type = "entity-changed";
+		event.entities = new ArrayList<>();
+		for (int i = 0; i < entries; i++) {
+			Entity entity = new Entity();
+			entity.id = 1000L + i;
+			entity.name = "entity " + i;
+			entity.phase = "phase.defect.new";
+			event.entities.add(entity);
+		}
+		jsonMessage = jsonCodec.encodeString(event).getBytes(StandardCharsets.UTF_8);
+		cborMessage = cborCodec.encodeBinary(event);
+	}
+
+	@Benchmark
+	public Object stringThenParse() throws IOException {
+		return mapper.readTree(new String(jsonMessage, StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public Event jsonCodec() throws IOException {
+		return jsonCodec.decode(jsonMessage, 0, jsonMessage.length);
+	}
+
+	@Benchmark
+	public Event cborCodec() throws IOException {
+		return cborCodec.decode(cborMessage, 0, cborMessage.length);
+	}
+
+	public static final class Event {
+		public String type;
+		public List<Entity> entities;
+	}
+
+	public static final class Entity {
+		public long id;
+		public String name;
+		public String phase;
+	}
+}
@@ -0,0 +1,50 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to bring a client up (login, upgrade, session validation)
+ * - connectWithLogin: each invocation is of a distinct client, thus missing the auth tokens cache and performing the login
+ * - connectWithCachedToken: all invocations are of the same client, thus reusing the cached auth token
+ * - the client is stopped after each invocation, outside of the measurement
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class ConnectBenchmark {
+	private static final AtomicLong CLIENTS_COUNTER = new AtomicLong();
+
+	private BenchmarkClient client;
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		if (client != null) {
+			client.stop();
+			client = null;
+		}
+	}
+
+	@Benchmark
+	public BenchmarkClient connectWithLogin(BenchmarkEnvironment environment) {
+		client = new BenchmarkClient(environment.context(BenchmarkEnvironment.CLIENT + "_" + CLIENTS_COUNTER.incrementAndGet(), false));
+		environment.service.initClient(client);
+		return client;
+	}
+
+	@Benchmark
+	public BenchmarkClient connectWithCachedToken(BenchmarkEnvironment environment) {
+		client = new BenchmarkClient(environment.context(BenchmarkEnvironment.CLIENT, false));
+		environment.service.initClient(client);
+		return client;
+	}
+}
@@ -0,0 +1,60 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip latency distribution (send, till the echo is received) against an echoing endpoint
+ * - payloadSize: message size, characters / bytes
+ * - each benchmark thread owns its client, thus the clients count is the threads count (-t)
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RoundTripBenchmark {
+	private static final long REPLY_TIMEOUT = 5000;
+
+	@Param({"64", "1024", "16384"})
+	public int payloadSize;
+
+	private BenchmarkClient client;
+	private String stringPayload;
+	private byte[] binaryPayload;
+
+	@Setup
+	public void setUp(BenchmarkEnvironment environment) {
+		stringPayload = BenchmarkEnvironment.stringPayload(payloadSize);
+		binaryPayload = BenchmarkEnvironment.binaryPayload(payloadSize);
+		client = new BenchmarkClient(environment.context(BenchmarkEnvironment.CLIENT, true));
+		environment.service.initClient(client);
+	}
+
+	@TearDown
+	public void tearDown() {
+		client.stop();
+	}
+
+	@Benchmark
+	public Object stringRoundTrip() throws Exception {
+		CompletableFuture<Object> reply = client.expectReply();
+		client.sendString(stringPayload);
+		return reply.get(REPLY_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	@Benchmark
+	public Object binaryRoundTrip() throws Exception {
+		CompletableFuture<Object> reply = client.expectReply();
+		client.sendBinary(binaryPayload);
+		return reply.get(REPLY_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+}
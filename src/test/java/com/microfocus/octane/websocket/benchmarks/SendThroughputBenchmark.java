@@ -0,0 +1,105 @@
+package com.microfocus.octane.websocket.benchmarks;
+
+import com.microfocus.octane.websocket.OctaneWSBufferPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Send throughput, messages per second, towards a swallowing (non echoing) endpoint
+ * - payloadSize: message size, characters / bytes
+ * - clients: number of connected clients, the benchmark threads are spread over them round robin
+ * - allocation per message is reported when run with the GC profiler (-prof gc, on by default in the 'benchmarks' profile)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SendThroughputBenchmark {
+
+	@Param({"64", "1024", "16384"})
+	public int payloadSize;
+
+	@Param({"1", "4"})
+	public int clients;
+
+	private final AtomicInteger threadsCounter = new AtomicInteger();
+	private BenchmarkClient[] connected;
+	private String stringPayload;
+	private byte[] binaryPayload;
+	private OctaneWSBufferPool bufferPool;
+
+	@Setup
+	public void setUp(BenchmarkEnvironment environment) {
+		stringPayload = BenchmarkEnvironment.stringPayload(payloadSize);
+		binaryPayload = BenchmarkEnvironment.binaryPayload(payloadSize);
+		bufferPool = environment.service.getBufferPool();
+		connected = new BenchmarkClient[clients];
+		for (int i = 0; i < clients; i++) {
+			connected[i] = new BenchmarkClient(environment.context(BenchmarkEnvironment.CLIENT, false));
+			environment.service.initClient(connected[i]);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (BenchmarkClient client : connected) {
+			client.stop();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadClient {
+		BenchmarkClient client;
+
+		@Setup
+		public void setUp(SendThroughputBenchmark benchmark) {
+			client = benchmark.connected[benchmark.threadsCounter.getAndIncrement() % benchmark.connected.length];
+		}
+	}
+
+	@Benchmark
+	public void sendString(ThreadClient threadClient) {
+		threadClient.client.sendString(stringPayload);
+	}
+
+	@Benchmark
+	public void sendBinary(ThreadClient threadClient) {
+		threadClient.client.sendBinary(binaryPayload);
+	}
+
+	/**
+	 * asynchronous sends are back pressured by the (BLOCK policy) outbound queue, thus measuring the sustained rate
+	 */
+	@Benchmark
+	public CompletableFuture<Void> sendStringAsync(ThreadClient threadClient) {
+		return threadClient.client.sendStringAsync(stringPayload);
+	}
+
+	@Benchmark
+	public CompletableFuture<Void> sendBinaryAsync(ThreadClient threadClient) {
+		return threadClient.client.sendBinaryAsync(binaryPayload);
+	}
+
+	/**
+	 * producer serializing into pooled direct buffers, handed to the socket as is and released once written
+	 */
+	@Benchmark
+	public CompletableFuture<Void> sendBinaryAsyncPooled(ThreadClient threadClient) {
+		ByteBuffer buffer = bufferPool.acquire(payloadSize, true);
+		buffer.put(binaryPayload).flip();
+		return threadClient.client.sendBinaryAsync(buffer, bufferPool::release);
+	}
+}
@@ -0,0 +1,84 @@
+package com.microfocus.octane.websocket.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class OctaneWSJacksonCodecTest {
+
+	@Test
+	public void testJson() throws IOException {
+		OctaneWSJacksonCodec<Event> codec = OctaneWSJacksonCodec.json(Event.class);
+		Assert.assertFalse(codec.isBinary());
+
+		String encoded = codec.encodeString(new Event("entity-changed", 42));
+		Assert.assertEquals("{\"type\":\"entity-changed\",\"count\":42}", encoded);
+		Assert.assertEquals(new Event("entity-changed", 42), codec.decode(encoded));
+
+		//  binary (UTF-8) message is parsed straight from the slice of the array
+		byte[] framed = ("xx" + encoded + "yy").getBytes(StandardCharsets.UTF_8);
+		Assert.assertEquals(new Event("entity-changed", 42), codec.decode(framed, 2, encoded.length()));
+	}
+
+	@Test
+	public void testBinaryFormats() throws IOException {
+		for (OctaneWSJacksonCodec<Event> codec : Arrays.asList(OctaneWSJacksonCodec.cbor(Event.class), OctaneWSJacksonCodec.smile(Event.class))) {
+			Assert.assertTrue(codec.isBinary());
+
+			byte[] encoded = codec.encodeBinary(new Event("entity-changed", 42));
+			byte[] framed = new byte[encoded.length + 4];
+			System.arraycopy(encoded, 0, framed, 2, encoded.length);
+			Assert.assertEquals(new Event("entity-changed", 42), codec.decode(framed, 2, encoded.length));
+		}
+	}
+
+	@Test
+	public void testGenericType() throws IOException {
+		OctaneWSJacksonCodec<List<Integer>> codec = OctaneWSJacksonCodec.of(new ObjectMapper(), new TypeReference<List<Integer>>() {
+		});
+		Assert.assertEquals(Arrays.asList(1, 2, 3), codec.decode("[1,2,3]"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testStringMessageOfBinaryFormat() throws IOException {
+		OctaneWSJacksonCodec.cbor(Event.class).decode("{}");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullMapper() {
+		OctaneWSJacksonCodec.of(null, Event.class);
+	}
+
+	public static final class Event {
+		public String type;
+		public int count;
+
+		public Event() {
+		}
+
+		Event(String type, int count) {
+			this.type = type;
+			this.count = count;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Event)) {
+				return false;
+			}
+			Event other = (Event) o;
+			return count == other.count && type.equals(other.type);
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + count;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.microfocus.octane.websocket.micrometer;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class OctaneWSMicrometerMetricsTest {
+
+	@Test
+	public void testMetersReporting() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		OctaneWSMicrometerMetrics metrics = new OctaneWSMicrometerMetrics(registry, Tags.of("endpoint", "test"));
+
+		metrics.onConnected();
+		metrics.onConnected();
+		metrics.onClosed(1000);
+		metrics.onConnectFailed();
+		metrics.onLogin(TimeUnit.MILLISECONDS.toNanos(5), true);
+		metrics.onStringMessageSent(10, TimeUnit.MILLISECONDS.toNanos(1));
+		metrics.onStringMessageSent(20, TimeUnit.MILLISECONDS.toNanos(3));
+		metrics.onBinaryMessageReceived(100);
+
+		Assert.assertEquals(1, registry.get("octane.ws.sessions.open").tag("endpoint", "test").gauge().value(), 0);
+		Assert.assertEquals(2, registry.get("octane.ws.connects").tag("outcome", "success").counter().count(), 0);
+		Assert.assertEquals(1, registry.get("octane.ws.connects").tag("outcome", "failure").counter().count(), 0);
+		Assert.assertEquals(1, registry.get("octane.ws.logins").tag("outcome", "success").timer().count());
+		Assert.assertEquals(0, registry.get("octane.ws.logins").tag("outcome", "failure").timer().count());
+		Assert.assertEquals(2, registry.get("octane.ws.sends").tag("type", "string").timer().count());
+		Assert.assertEquals(4, registry.get("octane.ws.sends").tag("type", "string").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+		Assert.assertEquals(30, registry.get("octane.ws.messages.sent").tag("type", "string").summary().totalAmount(), 0);
+		Assert.assertEquals(100, registry.get("octane.ws.messages.received").tag("type", "binary").summary().totalAmount(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullRegistry() {
+		new OctaneWSMicrometerMetrics(null, Tags.empty());
+	}
+}
@@ -1,26 +1,37 @@
 package com.microfocus.octane.websocket.simulator;
 
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.websocket.server.JettyWebSocketServlet;
+import org.eclipse.jetty.websocket.server.config.JettyWebSocketServletContainerInitializer;
 
 import javax.servlet.http.HttpServlet;
 
 public class TestWebSocketsSimulator {
 
 	public static Server startWebsocketServer(int port, Class<? extends HttpServlet> httpHandler, Class<? extends JettyWebSocketServlet> wsHandler) throws Exception {
+		return startWebsocketServer(port, httpHandler, wsHandler, null);
+	}
+
+	public static Server startWebsocketServer(int port, Class<? extends HttpServlet> httpHandler, Class<? extends JettyWebSocketServlet> wsHandler, SslContextFactory.Server sslContextFactory) throws Exception {
 
 		//  init server
 		Server server = new Server();
-		ServerConnector httpConnector = new ServerConnector(server);
+		ServerConnector httpConnector = sslContextFactory == null
+				? new ServerConnector(server)
+				: new ServerConnector(server, new SslConnectionFactory(sslContextFactory, "http/1.1"), new HttpConnectionFactory());
 		httpConnector.setPort(port);
 		server.addConnector(httpConnector);
 
 		//  add WS servlet
 		ServletContextHandler wsServletContextHandler = new ServletContextHandler(null, "/messaging", ServletContextHandler.SESSIONS);
 		wsServletContextHandler.addServlet(wsHandler, "/test");
+		JettyWebSocketServletContainerInitializer.configure(wsServletContextHandler, null);
 
 		//  add HTTP servlet
 		ServletContextHandler httpServletContextHandler = new ServletContextHandler(null, "/");